@@ -0,0 +1,111 @@
+package com.onieto.catalog.benchmark;
+
+import com.onieto.catalog.CatalogApplication;
+import com.onieto.catalog.dto.ProductSummary;
+import com.onieto.catalog.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ProductService.getProducts} (listado paginado resumido) contra una base H2 embebida
+ * con 10k y 100k productos. Mide la primera página, una página profunda y el
+ * filtro por categoría, incluyendo el conteo total que hace la paginación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductListingBenchmark {
+
+    private static final int CATEGORIES = 5;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private int deepPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(CatalogApplication.class)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:catalog-bench;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.sql.init.mode=never",
+                        "server.port=0",
+                        "catalog.seed.enabled=false",
+                        "catalog.changes.publish-interval=1h",
+                        "logging.level.root=WARN")
+                .run();
+        productService = context.getBean(ProductService.class);
+        seed(context.getBean(JdbcTemplate.class));
+        deepPage = rows / PAGE_SIZE / 2;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<ProductSummary> firstPage() {
+        return productService.getProducts(0, PAGE_SIZE, null, null);
+    }
+
+    @Benchmark
+    public Page<ProductSummary> deepPage() {
+        return productService.getProducts(deepPage, PAGE_SIZE, null, null);
+    }
+
+    @Benchmark
+    public Page<ProductSummary> filteredByCategory() {
+        return productService.getProducts(0, PAGE_SIZE, 3L, null);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        for (long id = 1; id <= CATEGORIES; id++) {
+            jdbcTemplate.update("insert into categories (id, name, version) values (?, ?, 0)", id, "Categoría " + id);
+        }
+        jdbcTemplate.update("insert into units (id, name, version) values (1, 'kg', 0)");
+
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{String.format("P%07d", i), "Producto " + i, "Descripción del producto " + i,
+                    1000 + i % 500, i % 200, 10, 1, 1 + i % CATEGORIES, 1});
+            if (batch.size() == 1000) {
+                insert(jdbcTemplate, batch);
+            }
+        }
+        insert(jdbcTemplate, batch);
+    }
+
+    private void insert(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("insert into products (id, nombre, descripcion, precio, stock, stock_minimo, "
+                + "activo, categoria_id, unit_id, stock_reservado, version) values (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0)", batch);
+        batch.clear();
+    }
+}
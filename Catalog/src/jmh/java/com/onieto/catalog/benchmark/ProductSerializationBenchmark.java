@@ -0,0 +1,80 @@
+package com.onieto.catalog.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onieto.catalog.config.SmileConfig;
+import com.onieto.catalog.dto.ProductSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización de un producto con y sin imagen, en JSON (navegadores) y en Smile
+ * (llamadas entre servicios).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSerializationBenchmark {
+
+    // Tamaño aproximado de las imágenes sembradas en img/products
+    @Param({"0", "92160"})
+    public int imageBytes;
+
+    private ObjectMapper json;
+    private ObjectMapper smile;
+    private ProductSnapshot product;
+    private byte[] productJson;
+    private byte[] productSmile;
+
+    @Setup
+    public void setUp() throws Exception {
+        json = new Jackson2ObjectMapperBuilder().build();
+        smile = new SmileConfig().smileHttpMessageConverter(new Jackson2ObjectMapperBuilder()).getObjectMapper();
+
+        byte[] imagen = null;
+        if (imageBytes > 0) {
+            imagen = new byte[imageBytes];
+            new Random(42).nextBytes(imagen);
+        }
+        product = new ProductSnapshot("FR001", "Manzana Fuji", "Manzana Fuji crujiente y dulce, ideal para colaciones",
+                1200, 150, 10, 1, new ProductSnapshot.Ref(1L, "Frutas"), new ProductSnapshot.Ref(1L, "kg"),
+                null, 3L, imagen, null);
+        productJson = json.writeValueAsBytes(product);
+        productSmile = smile.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] writeJson() throws Exception {
+        return json.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] writeSmile() throws Exception {
+        return smile.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public ProductSnapshot readJson() throws Exception {
+        return json.readValue(productJson, ProductSnapshot.class);
+    }
+
+    @Benchmark
+    public ProductSnapshot readSmile() throws Exception {
+        return smile.readValue(productSmile, ProductSnapshot.class);
+    }
+}
@@ -2,207 +2,320 @@ package com.onieto.catalog.config;
 
 import com.onieto.catalog.model.Category;
 import com.onieto.catalog.model.Product;
+import com.onieto.catalog.model.ProductChange;
+import com.onieto.catalog.model.SeedManifest;
 import com.onieto.catalog.model.Unit;
 import com.onieto.catalog.repository.CategoryRepository;
 import com.onieto.catalog.repository.ProductRepository;
+import com.onieto.catalog.repository.SeedManifestRepository;
 import com.onieto.catalog.repository.UnitRepository;
+import com.onieto.catalog.service.ProductChangeLog;
+import com.onieto.catalog.service.ProductImageService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StreamUtils;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Component
+@ConditionalOnProperty(name = "catalog.seed.enabled", havingValue = "true", matchIfMissing = true)
 public class DatabaseInitializer implements CommandLineRunner {
 
+    private static final String MANIFEST_NAME = "products";
+    private static final int SEED_STOCK = 100;
+    private static final int SEED_STOCK_MINIMO = 15;
+    private static final int IMAGE_LOADER_THREADS = 4;
+
+    private static final String INSERT_SQL = "insert into products " +
+            "(id, nombre, descripcion, precio, stock, stock_minimo, activo, categoria_id, unit_id, oferta) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) on conflict (id) do nothing";
+
+    private record SeedProduct(String id, String nombre, String descripcion, Integer precio,
+                               String imageName, String categoriaNombre, String unidadNombre, String oferta) {
+    }
+
+    private static final List<SeedProduct> SEED_PRODUCTS = List.of(
+
+            // --- Frutas ---
+            new SeedProduct(
+                    "FR001",
+                    "Manzanas Fuji",
+                    "Crujientes y dulces, cultivadas en el Valle del Maule. Perfectas para meriendas saludables o como ingrediente en postres.",
+                    1200,
+                    "apples2.jpg",
+                    "frutas",
+                    "kg",
+                    "Oferta"
+            ),
+
+            new SeedProduct(
+                    "FR002",
+                    "Naranjas Valencia",
+                    "Jugosas y ricas en vitamina C, ideales para zumos frescos y refrescantes. Cultivadas en condiciones climáticas óptimas.",
+                    1000,
+                    "oranges2.jpg",
+                    "frutas",
+                    "kg",
+                    null
+            ),
+
+            new SeedProduct(
+                    "FR003",
+                    "Plátanos Cavendish",
+                    "Maduros y dulces, perfectos para el desayuno o como snack energético. Ricos en potasio y vitaminas.",
+                    800,
+                    "bananas.jpg",
+                    "frutas",
+                    "kg",
+                    null
+            ),
+
+            // --- Verduras ---
+            new SeedProduct(
+                    "VR001",
+                    "Zanahorias Orgánicas",
+                    "Cultivadas sin pesticidas en la Región de O'Higgins. Excelente fuente de vitamina A y fibra, ideales para ensaladas y jugos.",
+                    900,
+                    "carrots.jpg",
+                    "verduras",
+                    "kg",
+                    null
+            ),
+
+            new SeedProduct(
+                    "VR002",
+                    "Espinacas Frescas",
+                    "Frescas y nutritivas, perfectas para ensaladas y batidos verdes. Cultivadas bajo prácticas orgánicas que garantizan su calidad.",
+                    700,
+                    "spinach.jpg",
+                    "verduras",
+                    "kg",
+                    "Nuevo"
+            ),
+
+            new SeedProduct(
+                    "VR003",
+                    "Pimientos Tricolores",
+                    "Pimientos rojos, amarillos y verdes, ideales para salteados y platos coloridos. Ricos en antioxidantes y vitaminas.",
+                    1500,
+                    "peppers.jpg",
+                    "verduras",
+                    "kg",
+                    "Nuevo"
+            ),
+
+            // --- Organicos ---
+            new SeedProduct(
+                    "PO001",
+                    "Miel Orgánica",
+                    "Miel pura y orgánica producida por apicultores locales. Rica en antioxidantes y con un sabor inigualable.",
+                    5000,
+                    "honey.jpg",
+                    "organicos",
+                    "500g",
+                    null
+            ),
+
+            new SeedProduct(
+                    "PO003",
+                    "Quinua Orgánica",
+                    "Quinua orgánica de alta calidad, rica en proteínas y nutrientes esenciales. Perfecta para una alimentación saludable.",
+                    3500,
+                    "quinoa.jpg",
+                    "organicos",
+                    "kg",
+                    null
+            ),
+
+            // --- Lacteos ---
+            new SeedProduct(
+                    "PL001",
+                    "Leche Entera",
+                    "Leche entera fresca de vacas criadas en praderas naturales. Rica en calcio y vitaminas esenciales.",
+                    1800,
+                    "milk.jpg",
+                    "lacteos",
+                    "L",
+                    null
+            )
+    );
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final UnitRepository unitRepository;
+    private final SeedManifestRepository seedManifestRepository;
+    private final ProductImageService productImageService;
+    private final ProductChangeLog productChangeLog;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
 
     public DatabaseInitializer(ProductRepository productRepository,
                                CategoryRepository categoryRepository,
-                               UnitRepository unitRepository) {
+                               UnitRepository unitRepository,
+                               SeedManifestRepository seedManifestRepository,
+                               ProductImageService productImageService,
+                               ProductChangeLog productChangeLog,
+                               JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
         this.unitRepository = unitRepository;
+        this.seedManifestRepository = seedManifestRepository;
+        this.productImageService = productImageService;
+        this.productChangeLog = productChangeLog;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
     }
 
+    /**
+     * Carga los productos semilla en una sola pasada: una consulta para saber cuáles ya existen,
+     * categorías y unidades en memoria, imágenes leídas en paralelo e inserción en un único lote.
+     * Si el checksum de los datos coincide con el de la última carga, no hace nada.
+     */
     @Override
     public void run(String... args) throws Exception {
-        System.out.println("📦 Iniciando carga de productos (Idempotente)...");
-
-        // --- Frutas ---
-        crearProducto(
-                "FR001",
-                "Manzanas Fuji",
-                "Crujientes y dulces, cultivadas en el Valle del Maule. Perfectas para meriendas saludables o como ingrediente en postres.",
-                1200,
-                "apples2.jpg",
-                "frutas",
-                "kg",
-                "Oferta"
-        );
-
-        crearProducto(
-                "FR002",
-                "Naranjas Valencia",
-                "Jugosas y ricas en vitamina C, ideales para zumos frescos y refrescantes. Cultivadas en condiciones climáticas óptimas.",
-                1000,
-                "oranges2.jpg",
-                "frutas",
-                "kg",
-                null
-        );
-
-        crearProducto(
-                "FR003",
-                "Plátanos Cavendish",
-                "Maduros y dulces, perfectos para el desayuno o como snack energético. Ricos en potasio y vitaminas.",
-                800,
-                "bananas.jpg",
-                "frutas",
-                "kg",
-                null
-        );
-
-        // --- Verduras ---
-        crearProducto(
-                "VR001",
-                "Zanahorias Orgánicas",
-                "Cultivadas sin pesticidas en la Región de O'Higgins. Excelente fuente de vitamina A y fibra, ideales para ensaladas y jugos.",
-                900,
-                "carrots.jpg",
-                "verduras",
-                "kg",
-                null
-        );
-
-        crearProducto(
-                "VR002",
-                "Espinacas Frescas",
-                "Frescas y nutritivas, perfectas para ensaladas y batidos verdes. Cultivadas bajo prácticas orgánicas que garantizan su calidad.",
-                700,
-                "spinach.jpg",
-                "verduras",
-                "kg",
-                "Nuevo"
-        );
-
-        crearProducto(
-                "VR003",
-                "Pimientos Tricolores",
-                "Pimientos rojos, amarillos y verdes, ideales para salteados y platos coloridos. Ricos en antioxidantes y vitaminas.",
-                1500,
-                "peppers.jpg",
-                "verduras",
-                "kg",
-                "Nuevo"
-        );
-
-        // --- Organicos ---
-        crearProducto(
-                "PO001",
-                "Miel Orgánica",
-                "Miel pura y orgánica producida por apicultores locales. Rica en antioxidantes y con un sabor inigualable.",
-                5000,
-                "honey.jpg",
-                "organicos",
-                "500g",
-                null
-        );
-
-        crearProducto(
-                "PO003",
-                "Quinua Orgánica",
-                "Quinua orgánica de alta calidad, rica en proteínas y nutrientes esenciales. Perfecta para una alimentación saludable.",
-                3500,
-                "quinoa.jpg",
-                "organicos",
-                "kg",
-                null
-        );
-
-        // --- Lacteos ---
-        crearProducto(
-                "PL001",
-                "Leche Entera",
-                "Leche entera fresca de vacas criadas en praderas naturales. Rica en calcio y vitaminas esenciales.",
-                1800,
-                "milk.jpg",
-                "lacteos",
-                "L",
-                null
-        );
-
-        System.out.println("✅ Carga de productos finalizada.");
-    }
+        String checksum = manifestChecksum();
+        Optional<SeedManifest> manifest = seedManifestRepository.findById(MANIFEST_NAME);
+        if (manifest.isPresent() && manifest.get().getChecksum().equals(checksum)) {
+            log.info("Datos semilla sin cambios, se omite la carga de productos.");
+            return;
+        }
 
-    private void crearProducto(String id, String nombre, String descripcion, Integer precio,
-                               String imageName, String categoriaNombre, String unidadNombre, String oferta) {
+        log.info("Iniciando carga de productos (idempotente)...");
+        List<String> ids = SEED_PRODUCTS.stream().map(SeedProduct::id).toList();
+        Set<String> existing = productRepository.findExistingIds(ids);
+        Set<String> withImage = productImageService.findProductIdsWithImage(ids);
+        Map<String, Category> categories = categoryRepository.findAll().stream()
+                .collect(Collectors.toMap(Category::getName, Function.identity()));
+        Map<String, Unit> units = unitRepository.findAll().stream()
+                .collect(Collectors.toMap(Unit::getName, Function.identity()));
 
-        // Si el producto ya existe, no hacer nada (idempotente sin actualizar registros existentes)
-        if (productRepository.existsById(id)) {
-            // System.out.println("⏭️ Producto " + nombre + " ya existe. Saltando...");
-            return;
+        List<Object[]> inserts = new ArrayList<>();
+        Set<String> insertedIds = new HashSet<>();
+        List<SeedProduct> needImage = new ArrayList<>();
+        boolean complete = true;
+        for (SeedProduct seed : SEED_PRODUCTS) {
+            if (!existing.contains(seed.id())) {
+                Category category = categories.get(seed.categoriaNombre());
+                Unit unit = units.get(seed.unidadNombre());
+                if (category == null || unit == null) {
+                    log.warn("Categoría o unidad no encontrada para {}: {} / {}",
+                            seed.id(), seed.categoriaNombre(), seed.unidadNombre());
+                    complete = false;
+                    continue;
+                }
+                inserts.add(new Object[]{seed.id(), seed.nombre(), seed.descripcion(), seed.precio(),
+                        SEED_STOCK, SEED_STOCK_MINIMO, Product.DEFAULT_ACTIVO,
+                        category.getId(), unit.getId(), seed.oferta()});
+                insertedIds.add(seed.id());
+            }
+            // Productos sembrados antes de separar las imágenes también reciben la suya
+            if (!withImage.contains(seed.id())) {
+                needImage.add(seed);
+            }
         }
 
+        // Las imágenes se leen en paralelo mientras se insertan los productos
+        ExecutorService imageLoader = Executors.newFixedThreadPool(IMAGE_LOADER_THREADS);
         try {
-            // 2. Buscar Entidades Relacionadas (Categoria y Unidad)
-            Optional<Category> categoriaOpt = categoryRepository.findByName(categoriaNombre);
-            if (categoriaOpt.isEmpty()) {
-                System.err.println("⚠️ Categoría no encontrada: " + categoriaNombre);
-                return;
+            Map<String, CompletableFuture<byte[]>> images = new LinkedHashMap<>();
+            needImage.forEach(seed -> images.put(seed.id(),
+                    CompletableFuture.supplyAsync(() -> loadImageFromResources(seed.imageName()), imageLoader)));
+
+            if (!inserts.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+                    productChangeLog.recordAll(insertedIds, ProductChange.Type.UPSERT);
+                });
+                log.info("Productos creados: {}", inserts.size());
             }
 
-            Optional<Unit> unitOpt = unitRepository.findByName(unidadNombre);
-            if (unitOpt.isEmpty()) {
-                System.err.println("⚠️ Unidad no encontrada: " + unidadNombre);
-                return;
+            for (Map.Entry<String, CompletableFuture<byte[]>> image : images.entrySet()) {
+                byte[] data = image.getValue().join();
+                if (data == null) {
+                    complete = false;
+                    continue;
+                }
+                if (existing.contains(image.getKey()) || insertedIds.contains(image.getKey())) {
+                    productImageService.saveImage(image.getKey(), data); // La imagen va a su propia tabla
+                }
             }
+        } finally {
+            imageLoader.shutdown();
+        }
 
-            byte[] imageBytes = loadImageFromResources(imageName);
-
-            // 4. Construir y Guardar el Producto
-            Product product = Product.builder()
-                    .id(id)
-                    .nombre(nombre)
-                    .descripcion(descripcion)
-                    .precio(precio)
-                    .stock(100)       // Requisito: Stock 100
-                    .stockMinimo(15)  // Requisito: Stock Mínimo 15
-                    .activo(1)        // Default activo
-                    .categoria(categoriaOpt.get())
-                    .unid(unitOpt.get())
-                    .imagen(imageBytes) // Guardamos los bytes directos
-                    .oferta(oferta)
-                    .build();
-
-            productRepository.save(product);
-            System.out.println("✅ Producto creado: " + nombre);
-
-        } catch (Exception e) {
-            System.err.println("❌ Error crítico creando producto " + nombre + ": " + e.getMessage());
-            e.printStackTrace();
+        // Solo se registra el checksum si todo quedó cargado; si no, se reintenta en el próximo arranque
+        if (complete) {
+            seedManifestRepository.save(SeedManifest.builder()
+                    .name(MANIFEST_NAME)
+                    .checksum(checksum)
+                    .appliedAt(LocalDateTime.now())
+                    .build());
         }
+        log.info("Carga de productos finalizada.");
     }
 
-    private byte[] loadImageFromResources(String imageName) {
+    // Incluye el tamaño de cada imagen para detectar reemplazos sin leer los archivos
+    private String manifestChecksum() {
+        StringBuilder manifest = new StringBuilder();
+        for (SeedProduct seed : SEED_PRODUCTS) {
+            manifest.append(seed).append('|').append(imageSize(seed.imageName())).append('\n');
+        }
+        return ProductImageService.sha256(manifest.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long imageSize(String imageName) {
+        ClassPathResource resource = findImage(imageName);
+        try {
+            return resource != null ? resource.contentLength() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private ClassPathResource findImage(String imageName) {
         // Primero busca en la carpeta img/products (donde están las imágenes reales)
         String[] candidatePaths = {"img/products/" + imageName, "img/" + imageName};
         for (String candidatePath : candidatePaths) {
-            try {
-                ClassPathResource imgFile = new ClassPathResource(candidatePath);
-                if (imgFile.exists()) {
-                    return StreamUtils.copyToByteArray(imgFile.getInputStream());
-                }
-            } catch (IOException e) {
-                System.err.println("❌ Error leyendo imagen " + imageName + " desde " + candidatePath + ": " + e.getMessage());
+            ClassPathResource imgFile = new ClassPathResource(candidatePath);
+            if (imgFile.exists()) {
+                return imgFile;
             }
         }
-
-        System.err.println("⚠️ Imagen no encontrada en resources/img/ ni img/products/: " + imageName);
         return null;
     }
+
+    private byte[] loadImageFromResources(String imageName) {
+        ClassPathResource imgFile = findImage(imageName);
+        if (imgFile == null) {
+            log.warn("Imagen no encontrada en resources/img/ ni img/products/: {}", imageName);
+            return null;
+        }
+        try {
+            return StreamUtils.copyToByteArray(imgFile.getInputStream());
+        } catch (IOException e) {
+            log.error("Error leyendo imagen {}", imageName, e);
+            return null;
+        }
+    }
 }
@@ -0,0 +1,90 @@
+package com.onieto.catalog.config;
+
+import com.onieto.catalog.service.ProductImageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Blob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Copia a {@code product_images}, con su SHA-256, las imágenes que quedaron en la columna
+ * {@code products.imagen} de antes de separarlas, y vacía la columna. Corre antes de la carga semilla
+ * para que ésta no las reemplace por las del classpath. Cada producto se migra en su propia
+ * transacción; con la columna vacía (o inexistente) no hace nada.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class LegacyImageMigration implements CommandLineRunner {
+
+    private static final String COLUMN_TYPE_SQL = "select data_type from information_schema.columns " +
+            "where lower(table_schema) = lower(current_schema) and lower(table_name) = 'products' " +
+            "and lower(column_name) = 'imagen'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductImageService productImageService;
+
+    @Override
+    public void run(String... args) {
+        Optional<String> columnType = legacyColumnType();
+        if (columnType.isEmpty()) {
+            return;
+        }
+        // En PostgreSQL el @Lob anterior quedó como oid; si la columna es bytea se lee directo
+        boolean bytea = columnType.get().equalsIgnoreCase("bytea");
+
+        List<String> ids = jdbcTemplate.queryForList("select id from products where imagen is not null", String.class);
+        int copied = 0;
+        for (String id : ids) {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> migrate(id, bytea)))) {
+                copied++;
+            }
+        }
+        if (!ids.isEmpty()) {
+            log.info("Imágenes migradas desde products.imagen: {} de {} productos", copied, ids.size());
+        }
+    }
+
+    private boolean migrate(String id, boolean bytea) {
+        byte[] data = jdbcTemplate.query("select imagen from products where id = ?",
+                rs -> rs.next() ? readImage(rs, bytea) : null, id);
+        // Una imagen subida después de separar las tablas es más reciente que la de la columna
+        boolean copy = data != null && data.length > 0 && productImageService.getContentHash(id).isEmpty();
+        if (copy) {
+            productImageService.saveImage(id, data);
+        }
+        jdbcTemplate.update("update products set imagen = null where id = ?", id);
+        return copy;
+    }
+
+    private Optional<String> legacyColumnType() {
+        return jdbcTemplate.queryForList(COLUMN_TYPE_SQL, String.class).stream().findFirst();
+    }
+
+    private byte[] readImage(ResultSet rs, boolean bytea) throws SQLException {
+        if (bytea) {
+            return rs.getBytes(1);
+        }
+        Blob blob = rs.getBlob(1);
+        if (blob == null) {
+            return null;
+        }
+        try {
+            return blob.getBytes(1, (int) blob.length());
+        } finally {
+            blob.free();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.onieto.catalog.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class LowStockConfig {
+
+    public static final String LOW_STOCK_EXECUTOR = "lowStockExecutor";
+
+    /**
+     * Pool que envía los eventos del stream de stock bajo, fuera del hilo de la escritura. La cola
+     * es acotada: si se llena, el suscriptor cuyo envío no entra se desconecta.
+     */
+    @Bean(name = LOW_STOCK_EXECUTOR)
+    public ThreadPoolTaskExecutor lowStockExecutor(
+            @Value("${catalog.low-stock.sse-threads:2}") int threads,
+            @Value("${catalog.low-stock.sse-queue-capacity:500}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("low-stock-sse-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+
+        Gauge.builder("catalog.products.low_stock.dispatch_backlog", executor,
+                        e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Envíos SSE de stock bajo en cola")
+                .register(meterRegistry);
+        return executor;
+    }
+}
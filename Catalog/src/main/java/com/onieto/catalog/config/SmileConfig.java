@@ -0,0 +1,28 @@
+package com.onieto.catalog.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Codificación binaria Smile para las llamadas entre servicios. Se negocia con
+ * {@code Accept: application/x-jackson-smile}; sin ese encabezado se sigue respondiendo JSON,
+ * porque el conversor queda después del de JSON.
+ */
+@Configuration
+public class SmileConfig {
+
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        // Los byte[] (imágenes) viajan como binario crudo en lugar de base64 o de la variante de 7 bits
+        SmileFactory factory = SmileFactory.builder()
+                .disable(SmileGenerator.Feature.ENCODE_BINARY_AS_7BIT)
+                .build();
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(factory).build());
+    }
+}
@@ -0,0 +1,40 @@
+package com.onieto.catalog.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ThumbnailConfig {
+
+    public static final String THUMBNAIL_EXECUTOR = "thumbnailExecutor";
+
+    /**
+     * Pool dedicado a redimensionar imágenes. La cola es acotada: si se llena, la tarea se
+     * rechaza y la imagen se sigue sirviendo en tamaño original hasta la próxima escritura.
+     */
+    @Bean(name = THUMBNAIL_EXECUTOR)
+    public ThreadPoolTaskExecutor thumbnailExecutor(
+            @Value("${catalog.images.thumbnails.threads:2}") int threads,
+            @Value("${catalog.images.thumbnails.queue-capacity:200}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("thumbnail-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+
+        Gauge.builder("catalog.images.thumbnails.backlog", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Miniaturas en cola pendientes de generar")
+                .register(meterRegistry);
+        Gauge.builder("catalog.images.thumbnails.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Miniaturas generándose en este momento")
+                .register(meterRegistry);
+        return executor;
+    }
+}
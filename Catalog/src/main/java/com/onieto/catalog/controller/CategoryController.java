@@ -2,15 +2,19 @@ package com.onieto.catalog.controller;
 
 import com.onieto.catalog.controller.response.MessageResponse;
 import com.onieto.catalog.model.Category;
+import com.onieto.catalog.service.CatalogVersions;
 import com.onieto.catalog.service.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -20,22 +24,43 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CatalogVersions catalogVersions;
 
     @Operation(summary = "Obtener todas las categorías", description = "Retorna una lista con todas las categorías disponibles.")
-    @ApiResponse(responseCode = "200", description = "Lista de categorías retornada correctamente")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Lista de categorías retornada correctamente"),
+            @ApiResponse(responseCode = "304", description = "Las categorías no cambiaron desde el ETag enviado")
+    })
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<List<Category>> getAllCategories(WebRequest request) {
+        // El ETag sale de la versión en memoria de la tabla: un 304 no consulta la base
+        if (request.checkNotModified(catalogVersions.etag(CatalogVersions.Table.CATEGORIES),
+                catalogVersions.lastModified(CatalogVersions.Table.CATEGORIES))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(categoryService.getAllCategories());
     }
 
     @Operation(summary = "Obtener categoría por ID", description = "Retorna una categoría según su ID.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Categoría encontrada"),
+            @ApiResponse(responseCode = "304", description = "La categoría no cambió desde el ETag enviado"),
             @ApiResponse(responseCode = "404", description = "Categoría no encontrada")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
-        return ResponseEntity.ok(categoryService.getCategoryById(id));
+    public ResponseEntity<Category> getCategoryById(@PathVariable Long id, WebRequest request) {
+        Category category = categoryService.getCategoryById(id);
+        // ETag débil: la representación es equivalente en JSON y Smile, no idéntica byte a byte
+        String etag = "W/\"" + category.getVersion() + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(category);
     }
 
     @Operation(summary = "Crear nueva categoría", description = "Crea una nueva categoría a partir de los datos proporcionados.")
@@ -50,16 +75,23 @@ public class CategoryController {
                 .body(new MessageResponse("Categoría creada exitosamente."));
     }
 
-    @Operation(summary = "Actualizar categoría", description = "Actualiza los datos de una categoría existente.")
+    @Operation(summary = "Actualizar categoría", description = "Actualiza los datos de una categoría existente. " +
+            "Con If-Match solo se aplica si la categoría sigue en esa versión.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Categoría actualizada correctamente"),
             @ApiResponse(responseCode = "404", description = "Categoría no encontrada"),
-            @ApiResponse(responseCode = "400", description = "Error de validación en los datos de entrada")
+            @ApiResponse(responseCode = "400", description = "Error de validación en los datos de entrada"),
+            @ApiResponse(responseCode = "412", description = "La versión de If-Match no es la actual")
     })
     @PutMapping("/{id}")
-    public ResponseEntity<MessageResponse> updateCategory(@PathVariable Long id, @Valid @RequestBody Category category) {
-        categoryService.updateCategory(id, category);
-        return ResponseEntity.ok(new MessageResponse("Categoría actualizada exitosamente."));
+    public ResponseEntity<MessageResponse> updateCategory(
+            @PathVariable Long id,
+            @Valid @RequestBody Category category,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Category saved = categoryService.updateCategory(id, category, ifMatch);
+        return ResponseEntity.ok()
+                .eTag("W/\"" + saved.getVersion() + "\"")
+                .body(new MessageResponse("Categoría actualizada exitosamente."));
     }
 
     @Operation(summary = "Eliminar categoría", description = "Elimina una categoría según su ID.")
@@ -1,8 +1,20 @@
 package com.onieto.catalog.controller;
 
 import com.onieto.catalog.controller.response.MessageResponse;
+import com.onieto.catalog.dto.LowStockItem;
+import com.onieto.catalog.dto.ProductBatchResponse;
+import com.onieto.catalog.dto.ProductChangePage;
 import com.onieto.catalog.dto.ProductDto;
-import com.onieto.catalog.model.Product;
+import com.onieto.catalog.dto.ProductFacets;
+import com.onieto.catalog.dto.ProductImportReport;
+import com.onieto.catalog.dto.ProductSnapshot;
+import com.onieto.catalog.dto.ProductSuggestion;
+import com.onieto.catalog.dto.ProductSummary;
+import com.onieto.catalog.service.CatalogVersions;
+import com.onieto.catalog.service.LowStockWatchList;
+import com.onieto.catalog.service.ProductChangeLog;
+import com.onieto.catalog.service.ProductImageService;
+import com.onieto.catalog.service.ProductImportService;
 import com.onieto.catalog.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -10,6 +22,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -17,10 +33,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -28,43 +49,262 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductController {
 
+    private static final CatalogVersions.Table[] LIST_TABLES = {
+            CatalogVersions.Table.PRODUCTS, CatalogVersions.Table.CATEGORIES, CatalogVersions.Table.UNITS};
+    private static final CatalogVersions.Table[] DETAIL_TABLES = {
+            CatalogVersions.Table.CATEGORIES, CatalogVersions.Table.UNITS};
+
     private final ProductService productService;
+    private final ProductImageService productImageService;
+    private final ProductImportService productImportService;
+    private final LowStockWatchList lowStockWatchList;
+    private final ProductChangeLog productChangeLog;
+    private final CatalogVersions catalogVersions;
 
     @Operation(
             summary = "Listar productos con paginación y filtros opcionales",
-            description = "Obtiene una lista paginada de productos, con opción de filtrar por categoría o unidad."
+            description = "Obtiene una lista paginada y resumida de productos (sin descripción ni imagen), con " +
+                    "opción de filtrar por categoría o unidad. " +
+                    "Si se envía after o limit se usa paginación por cursor: la respuesta incluye items y " +
+                    "nextCursor, que se pasa como after para pedir la página siguiente."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Productos listados exitosamente"),
-            @ApiResponse(responseCode = "204", description = "No se encontraron productos")
+            @ApiResponse(responseCode = "204", description = "No se encontraron productos"),
+            @ApiResponse(responseCode = "304", description = "El catálogo no cambió desde el ETag enviado"),
+            @ApiResponse(responseCode = "400", description = "Cursor o límite inválidos")
     })
     @GetMapping
     public ResponseEntity<?> getProducts(
             @RequestParam(defaultValue = "0") Integer page,
             @RequestParam(defaultValue = "10") Integer size,
             @RequestParam(required = false) Long categoryId,
-            @RequestParam(required = false) Long unitId) {
+            @RequestParam(required = false) Long unitId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+
+        // El resumen incluye los nombres de categoría y unidad: el ETag combina las tres tablas
+        if (request.checkNotModified(catalogVersions.etag(LIST_TABLES), catalogVersions.lastModified(LIST_TABLES))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+        }
+
+        if (after != null || limit != null) {
+            int pageLimit = limit != null ? limit : size;
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .body(productService.getProductsAfter(after, pageLimit, categoryId, unitId));
+        }
 
-        Page<Product> products = productService.getProducts(page, size, categoryId, unitId);
-        List<Product> content = products.getContent();
+        Page<ProductSummary> products = productService.getProducts(page, size, categoryId, unitId);
+        List<ProductSummary> content = products.getContent();
         if (content.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
-        return ResponseEntity.ok(content);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(content);
+    }
+
+    @Operation(
+            summary = "Buscar productos por texto",
+            description = "Búsqueda de texto completo en nombre y descripción (en español, con stemming). " +
+                    "Devuelve la lista resumida ordenada por relevancia y paginada; los encabezados " +
+                    "X-Total-Count y X-Total-Pages informan el total de coincidencias."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Productos encontrados"),
+            @ApiResponse(responseCode = "204", description = "Ningún producto coincide con la búsqueda"),
+            @ApiResponse(responseCode = "400", description = "Texto de búsqueda vacío o tamaño de página inválido")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductSummary>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "10") Integer size) {
+        Page<ProductSummary> results = productService.searchProducts(q, page, size);
+        if (results.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(results.getTotalElements()))
+                .header("X-Total-Pages", String.valueOf(results.getTotalPages()))
+                .body(results.getContent());
+    }
+
+    @Operation(
+            summary = "Sugerir productos por prefijo",
+            description = "Autocompletado en memoria: devuelve los productos con alguna palabra del nombre que " +
+                    "empieza con prefix, sin distinguir mayúsculas ni tildes."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Sugerencias obtenidas"),
+            @ApiResponse(responseCode = "400", description = "Límite inválido")
+    })
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") Integer limit) {
+        return ResponseEntity.ok(productService.suggestProducts(prefix, limit));
+    }
+
+    @Operation(
+            summary = "Contar productos por categoría y unidad",
+            description = "Devuelve la cantidad de productos de cada categoría y unidad. Con onlyAvailable=true " +
+                    "solo se cuentan los productos activos y con stock. Los conteos se mantienen en memoria."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Conteos obtenidos")
+    })
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacets> getFacets(@RequestParam(defaultValue = "false") boolean onlyAvailable) {
+        return ResponseEntity.ok(productService.getFacets(onlyAvailable));
+    }
+
+    @Operation(
+            summary = "Feed de cambios de productos",
+            description = "Devuelve en orden los cambios con secuencia mayor a since. Cada cambio trae el estado " +
+                    "actual del producto (UPSERT) o es una baja (DELETE). Para seguir leyendo se usa el valor " +
+                    "next como since. Las bajas se conservan por un tiempo limitado: un cliente que no lee " +
+                    "dentro de ese plazo debe volver a cargar el catálogo completo."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Página de cambios"),
+            @ApiResponse(responseCode = "400", description = "Parámetros inválidos")
+    })
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangePage> getChanges(
+            @RequestParam(defaultValue = "0") Long since,
+            @RequestParam(defaultValue = "100") Integer limit) {
+        return ResponseEntity.ok(productChangeLog.getChanges(since, limit));
+    }
+
+    @Operation(
+            summary = "Listar productos con stock bajo",
+            description = "Devuelve los productos cuyo stock es igual o menor a su stock mínimo, desde una lista en memoria."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Productos con stock bajo")
+    })
+    @GetMapping("/low-stock")
+    public ResponseEntity<List<LowStockItem>> getLowStock() {
+        return ResponseEntity.ok(lowStockWatchList.getItems());
+    }
+
+    @Operation(
+            summary = "Seguir los cambios de stock bajo (SSE)",
+            description = "Stream server-sent events: un evento snapshot con la lista actual y luego un evento " +
+                    "low-stock (ENTERED, UPDATED o LEFT) por cada producto que entra, cambia o sale de la lista."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stream abierto")
+    })
+    @GetMapping(value = "/low-stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLowStock() {
+        return lowStockWatchList.subscribe();
+    }
+
+    @Operation(
+            summary = "Obtener varios productos por ID",
+            description = "Devuelve en una sola consulta los productos indicados en ids (separados por coma, " +
+                    "máximo " + ProductService.MAX_BATCH_SIZE + "). Los ids inexistentes se informan en missing. " +
+                    "Con includeImageHash=true cada producto trae imagenHash en lugar de los bytes de la imagen."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Productos encontrados"),
+            @ApiResponse(responseCode = "400", description = "Lista de ids vacía o demasiado grande")
+    })
+    @GetMapping("/batch")
+    public ResponseEntity<ProductBatchResponse> getProductsByIds(
+            @RequestParam List<String> ids,
+            @RequestParam(defaultValue = "false") boolean includeImage,
+            @RequestParam(defaultValue = "false") boolean includeImageHash) {
+        return ResponseEntity.ok(productService.getProductsByIds(ids, includeImage, includeImageHash));
+    }
+
+    @Operation(
+            summary = "Obtener varios productos por ID (POST)",
+            description = "Igual que GET /batch pero recibe los ids en el cuerpo, para listas que no caben en la URL."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Productos encontrados"),
+            @ApiResponse(responseCode = "400", description = "Lista de ids vacía o demasiado grande")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<ProductBatchResponse> getProductsByIdsPost(
+            @RequestBody List<String> ids,
+            @RequestParam(defaultValue = "false") boolean includeImage,
+            @RequestParam(defaultValue = "false") boolean includeImageHash) {
+        return ResponseEntity.ok(productService.getProductsByIds(ids, includeImage, includeImageHash));
     }
 
     @Operation(
             summary = "Obtener producto por ID",
-            description = "Devuelve el detalle de un producto específico según su ID."
+            description = "Devuelve el detalle de un producto específico según su ID. " +
+                    "La imagen solo se incluye si se solicita con includeImage=true; con includeImageHash=true " +
+                    "se incluye solo su hash (imagenHash). " +
+                    "El ETag de la respuesta es débil y empieza por la versión del producto; también cambia si se " +
+                    "renombra su categoría o unidad. Se puede enviar tal cual en If-Match al actualizar."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Producto encontrado"),
+            @ApiResponse(responseCode = "304", description = "El producto no cambió desde el ETag enviado"),
             @ApiResponse(responseCode = "404", description = "Producto no encontrado")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<?> getProductById(@PathVariable String id) {
-        Product product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+    public ResponseEntity<?> getProductById(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "false") boolean includeImage,
+            @RequestParam(defaultValue = "false") boolean includeImageHash,
+            WebRequest request) {
+        if (includeImageHash && !includeImage) {
+            // Igual que con la imagen: cambiarla no incrementa la versión, así que no hay 304
+            ProductSnapshot product = productService.getProductWithImageHash(id);
+            return ResponseEntity.ok()
+                    .eTag(catalogVersions.etag(product.version(), DETAIL_TABLES))
+                    .body(product);
+        }
+        if (includeImage) {
+            // Cambiar solo la imagen no incrementa la versión: esta variante no responde 304
+            ProductSnapshot product = productService.getProductWithImage(id);
+            return ResponseEntity.ok()
+                    .eTag(catalogVersions.etag(product.version(), DETAIL_TABLES))
+                    .body(product);
+        }
+        // La versión se lee de la copia en caché: un 304 no toca la base ni serializa el cuerpo.
+        // El detalle incluye los nombres de categoría y unidad, así que renombrarlas también cambia el ETag
+        ProductSnapshot product = productService.getProductById(id);
+        String etag = catalogVersions.etag(product.version(), DETAIL_TABLES);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(product);
+    }
+
+    @Operation(
+            summary = "Obtener imagen de un producto",
+            description = "Transmite la imagen del producto. Con size se entrega la miniatura más chica de al " +
+                    "menos ese ancho en píxeles. Soporta ETag (If-None-Match) y peticiones Range. " +
+                    "Con el parámetro v igual al hash de la imagen vigente la respuesta es cacheable por un año; " +
+                    "las imágenes reemplazadas no se conservan, así que un v antiguo responde 404."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Imagen completa"),
+            @ApiResponse(responseCode = "206", description = "Rango parcial de la imagen"),
+            @ApiResponse(responseCode = "304", description = "La imagen no cambió"),
+            @ApiResponse(responseCode = "404", description = "Producto sin imagen o v distinto del hash vigente"),
+            @ApiResponse(responseCode = "416", description = "Rango no satisfacible")
+    })
+    @GetMapping("/{id}/image")
+    public ResponseEntity<StreamingResponseBody> getProductImage(
+            @PathVariable String id,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(name = "v", required = false) String version,
+            @RequestHeader HttpHeaders headers) {
+        return productImageService.buildImageResponse(id, size, headers, version);
     }
 
     @Operation(
@@ -80,18 +320,41 @@ public class ProductController {
         return productService.createProduct(dto);
     }
 
+    @Operation(
+            summary = "Importar productos de forma masiva",
+            description = "Recibe un archivo NDJSON (un producto por línea) o CSV con encabezado y lo procesa " +
+                    "fila a fila. Las filas válidas se crean o actualizan por id en lotes; la respuesta " +
+                    "informa las filas rechazadas con su número de línea y el motivo."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Importación procesada; revisar errors por fila"),
+            @ApiResponse(responseCode = "415", description = "Formato no soportado")
+    })
+    @PostMapping(value = "/import", consumes = {ProductImportService.NDJSON_VALUE, ProductImportService.CSV_VALUE})
+    public ResponseEntity<ProductImportReport> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) {
+        return ResponseEntity.ok(productImportService.importProducts(body, contentType));
+    }
+
     @Operation(
             summary = "Actualizar producto existente",
-            description = "Actualiza los detalles de un producto a partir de su ID y un objeto ProductDto."
+            description = "Actualiza los detalles de un producto a partir de su ID y un objeto ProductDto. " +
+                    "Con If-Match solo se aplica si el producto sigue en esa versión."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Producto actualizado exitosamente"),
             @ApiResponse(responseCode = "400", description = "Datos inválidos en la solicitud"),
-            @ApiResponse(responseCode = "404", description = "Producto no encontrado")
+            @ApiResponse(responseCode = "404", description = "Producto no encontrado"),
+            @ApiResponse(responseCode = "409", description = "Otra solicitud modificó el producto durante la actualización"),
+            @ApiResponse(responseCode = "412", description = "La versión de If-Match no es la actual")
     })
     @PutMapping("/{id}")
-    public ResponseEntity<MessageResponse> updateProduct(@PathVariable String id, @Valid @RequestBody ProductDto productDto) {
-        return productService.updateProduct(id, productDto);
+    public ResponseEntity<MessageResponse> updateProduct(
+            @PathVariable String id,
+            @Valid @RequestBody ProductDto productDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return productService.updateProduct(id, productDto, ifMatch);
     }
 
     @Operation(
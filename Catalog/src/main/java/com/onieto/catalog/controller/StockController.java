@@ -0,0 +1,71 @@
+package com.onieto.catalog.controller;
+
+import com.onieto.catalog.dto.StockOperationResult;
+import com.onieto.catalog.dto.StockRequestDto;
+import com.onieto.catalog.service.StockService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/products/stock")
+@RequiredArgsConstructor
+public class StockController {
+
+    private final StockService stockService;
+
+    @Operation(
+            summary = "Reservar stock",
+            description = "Descuenta del stock las cantidades indicadas y las deja reservadas. Es todo o nada: " +
+                    "si algún producto no tiene stock suficiente no se reserva ninguna línea."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stock reservado"),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos en la solicitud"),
+            @ApiResponse(responseCode = "409", description = "Alguna línea no pudo reservarse; ver el detalle por línea")
+    })
+    @PostMapping("/reserve")
+    public ResponseEntity<StockOperationResult> reserve(@Valid @RequestBody StockRequestDto request) {
+        return toResponse(stockService.reserve(request.getItems()));
+    }
+
+    @Operation(
+            summary = "Liberar stock reservado",
+            description = "Devuelve al stock disponible cantidades reservadas previamente, por ejemplo al cancelar una compra."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stock liberado"),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos en la solicitud"),
+            @ApiResponse(responseCode = "409", description = "Alguna línea supera lo reservado; ver el detalle por línea")
+    })
+    @PostMapping("/release")
+    public ResponseEntity<StockOperationResult> release(@Valid @RequestBody StockRequestDto request) {
+        return toResponse(stockService.release(request.getItems()));
+    }
+
+    @Operation(
+            summary = "Confirmar stock reservado",
+            description = "Confirma la venta de cantidades reservadas: dejan de figurar como reservadas y no vuelven al stock."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Reserva confirmada"),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos en la solicitud"),
+            @ApiResponse(responseCode = "409", description = "Alguna línea supera lo reservado; ver el detalle por línea")
+    })
+    @PostMapping("/commit")
+    public ResponseEntity<StockOperationResult> commit(@Valid @RequestBody StockRequestDto request) {
+        return toResponse(stockService.commit(request.getItems()));
+    }
+
+    private ResponseEntity<StockOperationResult> toResponse(StockOperationResult result) {
+        return ResponseEntity.status(result.applied() ? HttpStatus.OK : HttpStatus.CONFLICT).body(result);
+    }
+}
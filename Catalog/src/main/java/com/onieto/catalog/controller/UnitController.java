@@ -2,12 +2,15 @@ package com.onieto.catalog.controller;
 
 import com.onieto.catalog.controller.response.MessageResponse;
 import com.onieto.catalog.model.Unit;
+import com.onieto.catalog.service.CatalogVersions;
 import com.onieto.catalog.service.UnitService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -16,8 +19,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -27,17 +32,26 @@ import java.util.List;
 public class UnitController {
 
     private final UnitService unitService;
+    private final CatalogVersions catalogVersions;
 
     @Operation(
             summary = "Listar unidades",
             description = "Devuelve una lista con todas las unidades registradas en el sistema."
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Unidades listadas exitosamente")
+            @ApiResponse(responseCode = "200", description = "Unidades listadas exitosamente"),
+            @ApiResponse(responseCode = "304", description = "Las unidades no cambiaron desde el ETag enviado")
     })
     @GetMapping
-    public ResponseEntity<List<Unit>> getAllUnits() {
-        return ResponseEntity.ok(unitService.getAllUnits());
+    public ResponseEntity<List<Unit>> getAllUnits(WebRequest request) {
+        // El ETag sale de la versión en memoria de la tabla: un 304 no consulta la base
+        if (request.checkNotModified(catalogVersions.etag(CatalogVersions.Table.UNITS),
+                catalogVersions.lastModified(CatalogVersions.Table.UNITS))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(unitService.getAllUnits());
     }
 
     @Operation(
@@ -46,12 +60,21 @@ public class UnitController {
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Unidad encontrada"),
+            @ApiResponse(responseCode = "304", description = "La unidad no cambió desde el ETag enviado"),
             @ApiResponse(responseCode = "404", description = "Unidad no encontrada")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<?> getUnitById(@PathVariable Long id) {
+    public ResponseEntity<?> getUnitById(@PathVariable Long id, WebRequest request) {
         Unit unit = unitService.getUnitById(id);
-        return ResponseEntity.ok(unit);
+        // ETag débil: la representación es equivalente en JSON y Smile, no idéntica byte a byte
+        String etag = "W/\"" + unit.getVersion() + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(unit);
     }
 
     @Operation(
@@ -71,17 +94,24 @@ public class UnitController {
 
     @Operation(
             summary = "Actualizar unidad",
-            description = "Actualiza la información de una unidad existente por su ID."
+            description = "Actualiza la información de una unidad existente por su ID. " +
+                    "Con If-Match solo se aplica si la unidad sigue en esa versión."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Unidad actualizada exitosamente"),
             @ApiResponse(responseCode = "400", description = "Nombre duplicado o datos inválidos"),
-            @ApiResponse(responseCode = "404", description = "Unidad no encontrada")
+            @ApiResponse(responseCode = "404", description = "Unidad no encontrada"),
+            @ApiResponse(responseCode = "412", description = "La versión de If-Match no es la actual")
     })
     @PutMapping("/{id}")
-    public ResponseEntity<MessageResponse> updateUnit(@PathVariable Long id, @Valid @RequestBody Unit updatedUnit) {
-        unitService.updateUnit(id, updatedUnit);
-        return ResponseEntity.ok(new MessageResponse("Unidad actualizada exitosamente."));
+    public ResponseEntity<MessageResponse> updateUnit(
+            @PathVariable Long id,
+            @Valid @RequestBody Unit updatedUnit,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Unit saved = unitService.updateUnit(id, updatedUnit, ifMatch);
+        return ResponseEntity.ok()
+                .eTag("W/\"" + saved.getVersion() + "\"")
+                .body(new MessageResponse("Unidad actualizada exitosamente."));
     }
 
     @Operation(
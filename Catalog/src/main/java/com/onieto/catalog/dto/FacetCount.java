@@ -0,0 +1,4 @@
+package com.onieto.catalog.dto;
+
+public record FacetCount(Long id, String name, long count) {
+}
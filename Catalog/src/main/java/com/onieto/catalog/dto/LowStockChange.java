@@ -0,0 +1,13 @@
+package com.onieto.catalog.dto;
+
+/**
+ * Evento del stream de stock bajo. {@code LEFT} indica que el producto repuso stock o se eliminó.
+ */
+public record LowStockChange(Type type, LowStockItem item) {
+
+    public enum Type {
+        ENTERED,
+        UPDATED,
+        LEFT
+    }
+}
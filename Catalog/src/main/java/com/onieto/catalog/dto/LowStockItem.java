@@ -0,0 +1,4 @@
+package com.onieto.catalog.dto;
+
+public record LowStockItem(String id, String nombre, Integer stock, Integer stockMinimo) {
+}
@@ -0,0 +1,11 @@
+package com.onieto.catalog.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de una búsqueda de varios productos por id. Los ids inexistentes se
+ * informan en {@code missing} en el mismo orden en que se pidieron.
+ */
+public record ProductBatchResponse(Map<String, ProductSnapshot> products, List<String> missing) {
+}
@@ -0,0 +1,17 @@
+package com.onieto.catalog.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.onieto.catalog.model.ProductChange;
+
+import java.time.LocalDateTime;
+
+/**
+ * Un cambio del feed. {@code product} trae el estado actual del producto; en las bajas
+ * (tombstones) es nulo.
+ */
+public record ProductChangeEvent(long seq,
+                                 String productId,
+                                 ProductChange.Type type,
+                                 LocalDateTime changedAt,
+                                 @JsonInclude(JsonInclude.Include.NON_NULL) ProductSnapshot product) {
+}
@@ -0,0 +1,10 @@
+package com.onieto.catalog.dto;
+
+import java.util.List;
+
+/**
+ * Página del feed de cambios. {@code next} es el valor de {@code since} para pedir la
+ * siguiente página; si {@code hasMore} es falso el cliente quedó al día.
+ */
+public record ProductChangePage(List<ProductChangeEvent> changes, long next, boolean hasMore) {
+}
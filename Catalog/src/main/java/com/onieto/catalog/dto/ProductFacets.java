@@ -0,0 +1,10 @@
+package com.onieto.catalog.dto;
+
+import java.util.List;
+
+/**
+ * Cantidad de productos por categoría y por unidad. Las categorías y unidades sin productos
+ * se incluyen con cantidad 0.
+ */
+public record ProductFacets(List<FacetCount> categorias, List<FacetCount> unidades) {
+}
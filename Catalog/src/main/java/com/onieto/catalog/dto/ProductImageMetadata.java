@@ -0,0 +1,16 @@
+package com.onieto.catalog.dto;
+
+/**
+ * Datos de una imagen de producto (original o miniatura) sin sus bytes.
+ *
+ * @param width         ancho de la miniatura, o {@code null} para la imagen original
+ * @param sourceHash    hash de la imagen original de la que proviene
+ * @param variantsReady si ya se generaron las miniaturas del contenido actual
+ */
+public record ProductImageMetadata(String productId, Integer width, String contentHash, String sourceHash,
+                                   String contentType, Long contentLength, boolean variantsReady) {
+
+    public boolean isOriginal() {
+        return width == null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.onieto.catalog.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva: filas leídas, filas guardadas y el detalle de las
+ * filas rechazadas. {@code line} es el número de línea del cuerpo recibido (1 = primera línea).
+ */
+public record ProductImportReport(int processed, int imported, List<RowError> errors) {
+
+    public record RowError(long line, String id, String message) {
+    }
+}
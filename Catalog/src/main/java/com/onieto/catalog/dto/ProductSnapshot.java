@@ -0,0 +1,62 @@
+package com.onieto.catalog.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.onieto.catalog.model.Category;
+import com.onieto.catalog.model.Product;
+import com.onieto.catalog.model.Unit;
+
+/**
+ * Copia inmutable de un {@link Product} para servir lecturas sin retener la entidad JPA.
+ * Mantiene la misma forma JSON que la entidad.
+ */
+public record ProductSnapshot(String id,
+                              String nombre,
+                              String descripcion,
+                              Integer precio,
+                              Integer stock,
+                              Integer stockMinimo,
+                              Integer activo,
+                              Ref categoria,
+                              Ref unid,
+                              String oferta,
+                              Long version,
+                              @JsonInclude(JsonInclude.Include.NON_NULL) byte[] imagen,
+                              @JsonInclude(JsonInclude.Include.NON_NULL) String imagenHash) {
+
+    public record Ref(Long id, String name) {
+    }
+
+    public static ProductSnapshot from(Product product) {
+        Category categoria = product.getCategoria();
+        Unit unid = product.getUnid();
+        return new ProductSnapshot(
+                product.getId(),
+                product.getNombre(),
+                product.getDescripcion(),
+                product.getPrecio(),
+                product.getStock(),
+                product.getStockMinimo(),
+                product.getActivo(),
+                categoria != null ? new Ref(categoria.getId(), categoria.getName()) : null,
+                unid != null ? new Ref(unid.getId(), unid.getName()) : null,
+                product.getOferta(),
+                product.getVersion(),
+                null,
+                null
+        );
+    }
+
+    public ProductSnapshot withImagen(byte[] imagen) {
+        return new ProductSnapshot(id, nombre, descripcion, precio, stock, stockMinimo, activo,
+                categoria, unid, oferta, version, imagen, imagenHash);
+    }
+
+    /**
+     * Agrega el hash del contenido de la imagen: junto con el id basta para pedirla en
+     * {@code GET /{id}/image?v=<hash>} sin transferir los bytes con el producto.
+     */
+    public ProductSnapshot withImagenHash(String imagenHash) {
+        return new ProductSnapshot(id, nombre, descripcion, precio, stock, stockMinimo, activo,
+                categoria, unid, oferta, version, imagen, imagenHash);
+    }
+}
@@ -0,0 +1,4 @@
+package com.onieto.catalog.dto;
+
+public record ProductSuggestion(String id, String nombre) {
+}
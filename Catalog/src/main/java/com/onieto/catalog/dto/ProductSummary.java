@@ -0,0 +1,15 @@
+package com.onieto.catalog.dto;
+
+/**
+ * Vista liviana de un producto para los listados: solo columnas de la fila y los nombres
+ * de categoría y unidad, resueltos con un join en la misma consulta.
+ */
+public record ProductSummary(String id,
+                             String nombre,
+                             Integer precio,
+                             Integer stock,
+                             Integer activo,
+                             String oferta,
+                             String categoria,
+                             String unidad) {
+}
@@ -0,0 +1,23 @@
+package com.onieto.catalog.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de una operación de stock por lotes. La operación es todo o nada: si alguna
+ * línea falla, {@code applied} es falso y ninguna línea modificó el stock.
+ */
+public record StockOperationResult(boolean applied, List<Line> lines) {
+
+    public enum Status {
+        OK,
+        NOT_FOUND,
+        INSUFFICIENT_STOCK,
+        INSUFFICIENT_RESERVED
+    }
+
+    /**
+     * {@code stock} y {@code stockReservado} son los valores resultantes; nulos si la línea falló.
+     */
+    public record Line(String productId, int quantity, Status status, Integer stock, Integer stockReservado) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.onieto.catalog.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockRequestDto {
+
+    @NotEmpty(message = "Debe indicar al menos un producto")
+    @Size(max = 500, message = "No se pueden procesar más de 500 líneas a la vez")
+    private List<@Valid StockLineDto> items;
+}
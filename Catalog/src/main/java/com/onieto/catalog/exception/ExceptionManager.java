@@ -2,6 +2,7 @@ package com.onieto.catalog.exception;
 
 import com.onieto.catalog.controller.response.MessageResponse;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -46,6 +47,20 @@ public class ExceptionManager {
                 .body(new MessageResponse(ex.getMessage()));
     }
 
+    //412
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<MessageResponse> handlePreconditionFailed(PreconditionFailedException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(new MessageResponse(ex.getMessage()));
+    }
+
+    //409 cuando otra escritura ganó entre la lectura y el guardado
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<MessageResponse> handleOptimisticLocking(OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new MessageResponse("El recurso fue modificado por otra solicitud. Vuelva a intentarlo."));
+    }
+
     //Manejar otras validaciones como ConstraintViolationException si aplicas validación a nivel de método
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<?> handleConstraintViolation(ConstraintViolationException ex) {
@@ -1,14 +1,13 @@
 package com.onieto.catalog.model;
 
-import jakarta.persistence.Basic;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -19,9 +18,14 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // Soportan el filtro por categoría/unidad junto al recorrido por id de la paginación por cursor
+        @Index(name = "idx_products_categoria_id", columnList = "categoria_id, id"),
+        @Index(name = "idx_products_unit_id", columnList = "unit_id, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -55,6 +59,13 @@ public class Product {
     @Column(nullable = false)
     private Integer stock;
 
+    // Unidades ya descontadas de stock por reservas que aún no se confirman ni liberan
+    @PositiveOrZero
+    @Column(name = "stock_reservado", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer stockReservado = 0;
+
     @PositiveOrZero(message = "El stock minimo debe ser 0 o mayor")
     @Column(name = "stock_minimo", nullable = false)
     @Builder.Default
@@ -76,11 +87,12 @@ public class Product {
     @NotNull(message = "La unidad es obligatoria")
     private Unit unid;
 
-    @Lob
-    @Basic(fetch = FetchType.LAZY)
-    @Column(name = "imagen")
-    private byte[] imagen;
-
     @Column(name = "oferta", length = 50, nullable = true)
     private String oferta;
+
+    // Se incrementa en cada escritura; se expone como ETag para las actualizaciones condicionales
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
 }
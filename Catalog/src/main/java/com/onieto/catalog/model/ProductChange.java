@@ -0,0 +1,55 @@
+package com.onieto.catalog.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrada del feed de cambios de productos. Las filas solo se agregan; la compactación
+ * periódica borra las que ya fueron reemplazadas por un cambio posterior del mismo producto.
+ */
+@Entity
+@Table(name = "product_changes", indexes = {
+        @Index(name = "idx_product_changes_seq", columnList = "seq", unique = true),
+        @Index(name = "idx_product_changes_product_seq", columnList = "product_id, seq")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Posición en el feed. Es nula hasta que ProductChangeLog publica la fila
+    private Long seq;
+
+    @Column(name = "product_id", length = 20, nullable = false)
+    private String productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", length = 10, nullable = false)
+    private Type type;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    public enum Type {
+        UPSERT,
+        DELETE
+    }
+}
@@ -0,0 +1,48 @@
+package com.onieto.catalog.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Imagen de un producto, guardada fuera de la fila de {@link Product} para que
+ * los listados y el detalle no carguen los bytes salvo que se pidan.
+ */
+@Entity
+@Table(name = "product_images")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductImage {
+
+    @Id
+    @Column(name = "product_id", length = 20, nullable = false)
+    private String productId;
+
+    // SHA-256 en hexadecimal del contenido
+    @Column(name = "content_hash", length = 64, nullable = false)
+    private String contentHash;
+
+    @Column(name = "content_type", length = 100, nullable = false)
+    private String contentType;
+
+    @Column(name = "content_length", nullable = false)
+    private Long contentLength;
+
+    // Hash del contenido para el que ya se generaron las miniaturas; nulo mientras están pendientes
+    @Column(name = "variants_hash", length = 64)
+    private String variantsHash;
+
+    @Lob
+    @Column(name = "data", nullable = false)
+    @ToString.Exclude
+    private byte[] data;
+}
@@ -0,0 +1,42 @@
+package com.onieto.catalog.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Contenido de imagen direccionado por su hash. Cada contenido distinto se guarda una sola vez,
+ * aunque lo usen varios productos, y no se borra al reemplazar o quitar la imagen de un producto:
+ * las órdenes lo siguen referenciando con {@code ?v=<hash>}.
+ */
+@Entity
+@Table(name = "product_image_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductImageBlob {
+
+    // SHA-256 en hexadecimal del contenido
+    @Id
+    @Column(name = "content_hash", length = 64, nullable = false)
+    private String contentHash;
+
+    @Column(name = "content_type", length = 100, nullable = false)
+    private String contentType;
+
+    @Column(name = "content_length", nullable = false)
+    private Long contentLength;
+
+    @Lob
+    @Column(name = "data", nullable = false)
+    @ToString.Exclude
+    private byte[] data;
+}
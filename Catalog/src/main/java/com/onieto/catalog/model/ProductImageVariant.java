@@ -0,0 +1,62 @@
+package com.onieto.catalog.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.io.Serializable;
+
+/**
+ * Versión redimensionada de una {@link ProductImage}, identificada por producto y ancho.
+ */
+@Entity
+@Table(name = "product_image_variants")
+@IdClass(ProductImageVariant.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductImageVariant {
+
+    @Id
+    @Column(name = "product_id", length = 20, nullable = false)
+    private String productId;
+
+    @Id
+    @Column(name = "width", nullable = false)
+    private Integer width;
+
+    @Column(name = "content_hash", length = 64, nullable = false)
+    private String contentHash;
+
+    // Hash de la imagen original desde la que se generó
+    @Column(name = "source_hash", length = 64, nullable = false)
+    private String sourceHash;
+
+    @Column(name = "content_type", length = 100, nullable = false)
+    private String contentType;
+
+    @Column(name = "content_length", nullable = false)
+    private Long contentLength;
+
+    @Lob
+    @Column(name = "data", nullable = false)
+    @ToString.Exclude
+    private byte[] data;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String productId;
+        private Integer width;
+    }
+}
@@ -0,0 +1,36 @@
+package com.onieto.catalog.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de la última carga de datos semilla aplicada. Si el checksum de los datos no
+ * cambió, el arranque omite la carga.
+ */
+@Entity
+@Table(name = "seed_manifests")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SeedManifest {
+
+    @Id
+    @Column(length = 50, nullable = false)
+    private String name;
+
+    // SHA-256 en hexadecimal de la definición de los datos semilla
+    @Column(length = 64, nullable = false)
+    private String checksum;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+}
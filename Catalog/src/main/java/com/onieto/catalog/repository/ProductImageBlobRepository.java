@@ -0,0 +1,19 @@
+package com.onieto.catalog.repository;
+
+import com.onieto.catalog.dto.ProductImageMetadata;
+import com.onieto.catalog.model.ProductImageBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ProductImageBlobRepository extends JpaRepository<ProductImageBlob, String> {
+
+    // Sin producto: el mismo contenido puede pertenecer a varios
+    @Query("select new com.onieto.catalog.dto.ProductImageMetadata(null, null, b.contentHash, b.contentHash, " +
+            "b.contentType, b.contentLength, true) from ProductImageBlob b where b.contentHash = :hash")
+    Optional<ProductImageMetadata> findMetadataByContentHash(@Param("hash") String hash);
+}
@@ -0,0 +1,49 @@
+package com.onieto.catalog.repository;
+
+import com.onieto.catalog.dto.ProductImageMetadata;
+import com.onieto.catalog.model.ProductImage;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Repository
+public interface ProductImageRepository extends JpaRepository<ProductImage, String> {
+
+    @Query("select i.contentHash from ProductImage i where i.productId = :productId")
+    Optional<String> findContentHashByProductId(@Param("productId") String productId);
+
+    // Bloquea la fila hasta el fin de la transacción: un reemplazo concurrente espera a que termine
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i.contentHash from ProductImage i where i.productId = :productId")
+    Optional<String> lockContentHash(@Param("productId") String productId);
+
+    @Query("select new com.onieto.catalog.dto.ProductImageMetadata(i.productId, null, i.contentHash, i.contentHash, " +
+            "i.contentType, i.contentLength, case when i.variantsHash = i.contentHash then true else false end) " +
+            "from ProductImage i where i.productId = :productId")
+    Optional<ProductImageMetadata> findMetadataByProductId(@Param("productId") String productId);
+
+    @Query("select new com.onieto.catalog.dto.ProductImageMetadata(i.productId, null, i.contentHash, i.contentHash, " +
+            "i.contentType, i.contentLength, case when i.variantsHash = i.contentHash then true else false end) " +
+            "from ProductImage i where i.productId in :productIds")
+    List<ProductImageMetadata> findMetadataByProductIdIn(@Param("productIds") Collection<String> productIds);
+
+    List<ProductImage> findAllByProductIdIn(Collection<String> productIds);
+
+    @Query("select i.productId from ProductImage i where i.productId in :productIds")
+    Set<String> findExistingProductIds(@Param("productIds") Collection<String> productIds);
+
+    @Modifying
+    @Transactional
+    @Query("update ProductImage i set i.variantsHash = :hash where i.productId = :productId and i.contentHash = :hash")
+    int markVariantsReady(@Param("productId") String productId, @Param("hash") String hash);
+}
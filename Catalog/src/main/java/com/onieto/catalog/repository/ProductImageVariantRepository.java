@@ -0,0 +1,41 @@
+package com.onieto.catalog.repository;
+
+import com.onieto.catalog.dto.ProductImageMetadata;
+import com.onieto.catalog.model.ProductImageVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface ProductImageVariantRepository extends JpaRepository<ProductImageVariant, ProductImageVariant.Key> {
+
+    // Miniaturas vigentes (generadas desde la imagen actual) de al menos minWidth, de menor a mayor
+    @Query("select new com.onieto.catalog.dto.ProductImageMetadata(v.productId, v.width, v.contentHash, v.sourceHash, " +
+            "v.contentType, v.contentLength, true) " +
+            "from ProductImageVariant v, ProductImage i " +
+            "where v.productId = :productId and i.productId = v.productId and v.sourceHash = i.contentHash " +
+            "and v.width >= :minWidth order by v.width asc")
+    List<ProductImageMetadata> findCurrentMetadata(@Param("productId") String productId,
+                                                   @Param("minWidth") Integer minWidth);
+
+    @Modifying
+    @Transactional
+    @Query("delete from ProductImageVariant v where v.productId = :productId")
+    int deleteByProductId(@Param("productId") String productId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from ProductImageVariant v where v.productId = :productId and not exists " +
+            "(select 1 from ProductImage i where i.productId = v.productId and i.contentHash = v.sourceHash)")
+    int deleteOrphaned(@Param("productId") String productId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from ProductImageVariant v where v.productId = :productId and v.sourceHash <> :sourceHash")
+    int deleteStale(@Param("productId") String productId, @Param("sourceHash") String sourceHash);
+}
@@ -1,20 +1,41 @@
 package com.onieto.catalog.repository;
 
+import com.onieto.catalog.dto.LowStockItem;
+import com.onieto.catalog.dto.ProductSuggestion;
 import com.onieto.catalog.model.Product;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, String> {
+public interface ProductRepository extends JpaRepository<Product, String>, ProductSummaryRepository {
     boolean existsProductsByCategoriaId(Long categoryId);
 
     boolean existsProductsByUnidId(Long unitId);
 
-    Page<Product> findByCategoriaId(Long categoryId, Pageable pageable);
+    // Un solo SELECT ... IN con categoría y unidad en el mismo join
+    @Query("select p from Product p join fetch p.categoria join fetch p.unid where p.id in :ids")
+    List<Product> findAllWithReferencesByIdIn(@Param("ids") Collection<String> ids);
+
+    @Query("select p.id from Product p where p.id in :ids")
+    Set<String> findExistingIds(@Param("ids") Collection<String> ids);
+
+    @Query("select new com.onieto.catalog.dto.ProductSuggestion(p.id, p.nombre) from Product p")
+    List<ProductSuggestion> findAllSuggestions();
 
-    Page<Product> findByUnidId(Long unitId, Pageable pageable);
+    @Query("select new com.onieto.catalog.dto.LowStockItem(p.id, p.nombre, p.stock, p.stockMinimo) " +
+            "from Product p where p.stock <= p.stockMinimo")
+    List<LowStockItem> findLowStock();
 
-    Page<Product> findByCategoriaIdAndUnidId(Long categoryId, Long unitId, Pageable pageable);
+    // Fila por combinación categoría/unidad/disponible: [categoriaId, unitId, disponible, cantidad]
+    @Query("select p.categoria.id, p.unid.id, " +
+            "case when p.activo = 1 and p.stock > 0 then true else false end, count(p) " +
+            "from Product p " +
+            "group by p.categoria.id, p.unid.id, case when p.activo = 1 and p.stock > 0 then true else false end")
+    List<Object[]> countFacets();
 }
@@ -0,0 +1,24 @@
+package com.onieto.catalog.repository;
+
+import com.onieto.catalog.dto.ProductSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Consultas de listado de productos que devuelven {@link ProductSummary} en una sola sentencia SQL.
+ * Los filtros nulos se omiten de la consulta.
+ */
+public interface ProductSummaryRepository {
+
+    Page<ProductSummary> findSummaries(Long categoryId, Long unitId, Pageable pageable);
+
+    List<ProductSummary> findSummariesAfter(Long categoryId, Long unitId, String afterId, int limit);
+
+    /**
+     * Búsqueda de texto completo sobre nombre y descripción usando la columna {@code search_vector}
+     * (ver data.sql). Los resultados se ordenan por relevancia y luego por id.
+     */
+    Page<ProductSummary> searchSummaries(String query, Pageable pageable);
+}
@@ -0,0 +1,111 @@
+package com.onieto.catalog.repository;
+
+import com.onieto.catalog.dto.ProductSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class ProductSummaryRepositoryImpl implements ProductSummaryRepository {
+
+    private static final String SELECT_SUMMARY = "select new com.onieto.catalog.dto.ProductSummary(" +
+            "p.id, p.nombre, p.precio, p.stock, p.activo, p.oferta, c.name, u.name) " +
+            "from Product p join p.categoria c join p.unid u";
+
+    // websearch_to_tsquery acepta texto libre del usuario (comillas, OR, -) sin lanzar errores de sintaxis
+    private static final String SEARCH_SQL = "select p.id, p.nombre, p.precio, p.stock, p.activo, p.oferta, " +
+            "c.name as categoria, u.name as unidad " +
+            "from products p join categories c on c.id = p.categoria_id join units u on u.id = p.unit_id, " +
+            "websearch_to_tsquery('spanish', :q) query " +
+            "where p.search_vector @@ query " +
+            "order by ts_rank_cd(p.search_vector, query) desc, p.id " +
+            "limit :limit offset :offset";
+    private static final String SEARCH_COUNT_SQL = "select count(*) from products p " +
+            "where p.search_vector @@ websearch_to_tsquery('spanish', :q)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ProductSummary> findSummaries(Long categoryId, Long unitId, Pageable pageable) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String where = buildWhere(categoryId, unitId, null, params);
+
+        TypedQuery<ProductSummary> query = entityManager
+                .createQuery(SELECT_SUMMARY + where + " order by p.id", ProductSummary.class)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize());
+        params.forEach(query::setParameter);
+        List<ProductSummary> content = query.getResultList();
+
+        TypedQuery<Long> count = entityManager.createQuery("select count(p) from Product p" + where, Long.class);
+        params.forEach(count::setParameter);
+        return new PageImpl<>(content, pageable, count.getSingleResult());
+    }
+
+    @Override
+    public List<ProductSummary> findSummariesAfter(Long categoryId, Long unitId, String afterId, int limit) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String where = buildWhere(categoryId, unitId, afterId, params);
+
+        TypedQuery<ProductSummary> query = entityManager
+                .createQuery(SELECT_SUMMARY + where + " order by p.id", ProductSummary.class)
+                .setMaxResults(limit);
+        params.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Page<ProductSummary> searchSummaries(String query, Pageable pageable) {
+        List<Object[]> rows = entityManager.createNativeQuery(SEARCH_SQL)
+                .setParameter("q", query)
+                .setParameter("limit", pageable.getPageSize())
+                .setParameter("offset", pageable.getOffset())
+                .getResultList();
+        List<ProductSummary> content = rows.stream()
+                .map(row -> new ProductSummary(
+                        (String) row[0],
+                        (String) row[1],
+                        toInteger(row[2]),
+                        toInteger(row[3]),
+                        toInteger(row[4]),
+                        (String) row[5],
+                        (String) row[6],
+                        (String) row[7]))
+                .toList();
+
+        Number total = (Number) entityManager.createNativeQuery(SEARCH_COUNT_SQL)
+                .setParameter("q", query)
+                .getSingleResult();
+        return new PageImpl<>(content, pageable, total.longValue());
+    }
+
+    private static Integer toInteger(Object value) {
+        return value != null ? ((Number) value).intValue() : null;
+    }
+
+    // Se filtra por las columnas FK de products para no depender de los joins en el count
+    private String buildWhere(Long categoryId, Long unitId, String afterId, Map<String, Object> params) {
+        StringBuilder where = new StringBuilder();
+        if (categoryId != null) {
+            where.append(where.isEmpty() ? " where " : " and ").append("p.categoria.id = :categoryId");
+            params.put("categoryId", categoryId);
+        }
+        if (unitId != null) {
+            where.append(where.isEmpty() ? " where " : " and ").append("p.unid.id = :unitId");
+            params.put("unitId", unitId);
+        }
+        if (afterId != null) {
+            where.append(where.isEmpty() ? " where " : " and ").append("p.id > :afterId");
+            params.put("afterId", afterId);
+        }
+        return where.toString();
+    }
+}
@@ -0,0 +1,9 @@
+package com.onieto.catalog.repository;
+
+import com.onieto.catalog.model.SeedManifest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SeedManifestRepository extends JpaRepository<SeedManifest, String> {
+}
@@ -0,0 +1,86 @@
+package com.onieto.catalog.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Versión en memoria de cada tabla del catálogo, para responder GET condicionales (ETag débil y
+ * Last-Modified) sin consultar la base. Cada escritura incrementa la versión de su tabla al
+ * confirmarse la transacción, de modo que un ETag nuevo nunca se entrega con datos viejos.
+ * El instante de arranque forma parte del ETag: tras un reinicio los clientes revalidan.
+ */
+@Component
+public class CatalogVersions {
+
+    public enum Table {
+        PRODUCTS,
+        CATEGORIES,
+        UNITS
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Table, Version> versions = new EnumMap<>(Table.class);
+
+    public CatalogVersions() {
+        for (Table table : Table.values()) {
+            versions.put(table, new Version());
+        }
+    }
+
+    /**
+     * Marca la tabla como modificada. Dentro de una transacción el cambio se aplica recién
+     * después del commit.
+     */
+    public void touch(Table table) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.get(table).increment();
+                }
+            });
+        } else {
+            versions.get(table).increment();
+        }
+    }
+
+    public String etag(Table... tables) {
+        return "W/\"" + epoch + "-" + Arrays.stream(tables)
+                .map(table -> Long.toString(versions.get(table).value))
+                .collect(Collectors.joining("-")) + "\"";
+    }
+
+    /**
+     * ETag débil de una entidad cuya representación incluye datos de otras tablas (por ejemplo el
+     * nombre de su categoría y unidad). Empieza por la versión de la entidad, que es lo que se
+     * compara en If-Match; el resto cambia cuando se modifica alguna de las tablas indicadas.
+     */
+    public String etag(long entityVersion, Table... tables) {
+        return "W/\"" + entityVersion + "-" + epoch + "-" + Arrays.stream(tables)
+                .map(table -> Long.toString(versions.get(table).value))
+                .collect(Collectors.joining("-")) + "\"";
+    }
+
+    public long lastModified(Table... tables) {
+        return Arrays.stream(tables)
+                .mapToLong(table -> versions.get(table).modifiedAt)
+                .max()
+                .orElse(0L);
+    }
+
+    private static final class Version {
+        private volatile long value;
+        private volatile long modifiedAt = System.currentTimeMillis();
+
+        synchronized void increment() {
+            value++;
+            modifiedAt = System.currentTimeMillis();
+        }
+    }
+}
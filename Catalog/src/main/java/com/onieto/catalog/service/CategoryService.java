@@ -7,6 +7,7 @@ import com.onieto.catalog.repository.CategoryRepository;
 import com.onieto.catalog.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -16,13 +17,17 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ProductChangeLog productChangeLog;
+    private final CatalogVersions catalogVersions;
+    private final ReferenceData referenceData;
 
     public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+        return referenceData.getCategories();
     }
 
     public Category getCategoryById(Long id) {
-        return categoryRepository.findById(id)
+        return referenceData.findCategory(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category no encontrada: " + id));
     }
 
@@ -31,11 +36,20 @@ public class CategoryService {
             throw new IllegalArgumentException("Ya existe una categoría con ese nombre.");
         }
         categoryRepository.save(category);
+        catalogVersions.touch(CatalogVersions.Table.CATEGORIES);
+        referenceData.reloadCategories();
     }
 
-    public void updateCategory(Long id, Category updatedCategory) {
+    @Transactional
+    public Category updateCategory(Long id, Category updatedCategory) {
+        return updateCategory(id, updatedCategory, null);
+    }
+
+    @Transactional
+    public Category updateCategory(Long id, Category updatedCategory, String ifMatch) {
         Category existing = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category no encontrada: " + id));
+        EntityVersions.checkIfMatch(ifMatch, existing.getVersion(), "La categoría fue modificada por otra solicitud: " + id);
 
         boolean nombreEnUso = categoryRepository.existsByNameIgnoreCaseAndIdNot(updatedCategory.getName(), id);
         if (nombreEnUso) {
@@ -43,7 +57,12 @@ public class CategoryService {
         }
 
         existing.setName(updatedCategory.getName());
-        categoryRepository.save(existing);
+        Category saved = categoryRepository.saveAndFlush(existing);
+        catalogVersions.touch(CatalogVersions.Table.CATEGORIES);
+        referenceData.reloadCategories();
+        productChangeLog.recordCategory(id);
+        productCache.evictAll();
+        return saved;
     }
 
     public void deleteCategory(Long id) {
@@ -53,6 +72,8 @@ public class CategoryService {
         }
 
         categoryRepository.deleteById(id);
+        catalogVersions.touch(CatalogVersions.Table.CATEGORIES);
+        referenceData.reloadCategories();
     }
 
 }
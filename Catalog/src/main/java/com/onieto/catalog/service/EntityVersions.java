@@ -0,0 +1,34 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.exception.PreconditionFailedException;
+import org.springframework.util.StringUtils;
+
+/**
+ * Comparación de la cabecera {@code If-Match} con la versión actual de una entidad. El ETag
+ * de una entidad empieza por su versión: se aceptan {@code "3"}, {@code W/"3"} y el ETag de detalle
+ * {@code W/"3-..."} (ver {@link CatalogVersions#etag(long, CatalogVersions.Table...)}).
+ * Sin If-Match (o con {@code *}) no se exige nada.
+ */
+final class EntityVersions {
+
+    private EntityVersions() {
+    }
+
+    static void checkIfMatch(String ifMatch, Long currentVersion, String message) {
+        if (!StringUtils.hasText(ifMatch) || ifMatch.trim().equals("*")) {
+            return;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        int separator = tag.indexOf('-');
+        if (separator >= 0) {
+            tag = tag.substring(0, separator);
+        }
+        if (!tag.equals(String.valueOf(currentVersion))) {
+            throw new PreconditionFailedException(message);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.config.LowStockConfig;
+import com.onieto.catalog.dto.LowStockChange;
+import com.onieto.catalog.dto.LowStockItem;
+import com.onieto.catalog.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Productos con {@code stock <= stockMinimo}, mantenidos en memoria. Se carga al arrancar y
+ * cada escritura que cambia el stock la ajusta; los cambios se publican a los suscriptores SSE.
+ * <p>
+ * {@link #update} y {@link #remove} se llaman una vez confirmada la escritura (quien llama decide ese
+ * momento: dentro de un {@code afterCommit} no se puede registrar otro). Los envíos se hacen en un pool
+ * propio, nunca en el hilo de la escritura.
+ * Cada suscriptor tiene su propia cola en orden; si acumula más de {@code sse-max-pending} eventos
+ * sin enviar (cliente lento) o el pool está saturado, se lo desconecta y debe volver a suscribirse.
+ */
+@Slf4j
+@Component
+public class LowStockWatchList {
+
+    static final String EVENT_SNAPSHOT = "snapshot";
+    static final String EVENT_CHANGE = "low-stock";
+
+    private final ProductRepository productRepository;
+    private final TaskExecutor dispatcher;
+    private final Duration emitterTimeout;
+    private final int maxPending;
+    private final Counter dropped;
+    private final Map<String, LowStockItem> items = new ConcurrentHashMap<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    public LowStockWatchList(ProductRepository productRepository,
+                             @Qualifier(LowStockConfig.LOW_STOCK_EXECUTOR) TaskExecutor dispatcher,
+                             @Value("${catalog.low-stock.sse-timeout:30m}") Duration emitterTimeout,
+                             @Value("${catalog.low-stock.sse-max-pending:100}") int maxPending,
+                             MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.dispatcher = dispatcher;
+        this.emitterTimeout = emitterTimeout;
+        this.maxPending = maxPending;
+        this.dropped = meterRegistry.counter("catalog.products.low_stock.subscribers.dropped");
+        Gauge.builder("catalog.products.low_stock", items, Map::size)
+                .description("Productos con stock igual o menor al mínimo")
+                .register(meterRegistry);
+        Gauge.builder("catalog.products.low_stock.subscribers", subscribers, List::size)
+                .description("Suscriptores conectados al stream de stock bajo")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<LowStockItem> current = productRepository.findLowStock();
+        items.clear();
+        current.forEach(item -> items.put(item.id(), item));
+        log.info("Lista de stock bajo cargada: {} productos", items.size());
+    }
+
+    public List<LowStockItem> getItems() {
+        return items.values().stream()
+                .sorted(Comparator.comparing(LowStockItem::id))
+                .toList();
+    }
+
+    /**
+     * Registra el stock actual de un producto. Solo notifica si el producto entra, sigue o sale
+     * de la lista.
+     */
+    public void update(String id, String nombre, Integer stock, Integer stockMinimo) {
+        boolean low = stock != null && stockMinimo != null && stock <= stockMinimo;
+        if (low) {
+            LowStockItem item = new LowStockItem(id, nombre, stock, stockMinimo);
+            LowStockItem previous = items.put(id, item);
+            if (!item.equals(previous)) {
+                publish(new LowStockChange(previous == null ? LowStockChange.Type.ENTERED : LowStockChange.Type.UPDATED, item));
+            }
+        } else {
+            remove(id);
+        }
+    }
+
+    public void remove(String id) {
+        LowStockItem previous = items.remove(id);
+        if (previous != null) {
+            publish(new LowStockChange(LowStockChange.Type.LEFT, previous));
+        }
+    }
+
+    /**
+     * Abre un stream SSE: primero envía la lista completa (evento {@code snapshot}) y luego
+     * un evento {@code low-stock} por cada cambio.
+     */
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(emitterTimeout.toMillis()));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_SNAPSHOT).data(getItems()));
+        } catch (IOException e) {
+            subscribers.remove(subscriber);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    private void publish(LowStockChange change) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.pending.incrementAndGet() > maxPending) {
+                disconnect(subscriber, "no consume los eventos a tiempo");
+                continue;
+            }
+            subscriber.queue.add(change);
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> drain(subscriber));
+        } catch (TaskRejectedException e) {
+            subscriber.draining.set(false);
+            disconnect(subscriber, "la cola de envíos está llena");
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            LowStockChange change;
+            while ((change = subscriber.queue.poll()) != null) {
+                subscriber.pending.decrementAndGet();
+                try {
+                    subscriber.emitter.send(SseEmitter.event().name(EVENT_CHANGE).data(change));
+                } catch (IOException | IllegalStateException e) {
+                    // Cliente desconectado: se descarta sin afectar a los demás suscriptores
+                    subscribers.remove(subscriber);
+                    subscriber.queue.clear();
+                    return;
+                }
+            }
+            subscriber.draining.set(false);
+            // Un evento pudo encolarse después del último poll: se retoma si nadie más lo hizo
+        } while (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void disconnect(Subscriber subscriber, String reason) {
+        if (subscribers.remove(subscriber)) {
+            dropped.increment();
+            log.warn("Se desconecta un suscriptor del stream de stock bajo: {}", reason);
+            subscriber.queue.clear();
+            subscriber.emitter.complete();
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<LowStockChange> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
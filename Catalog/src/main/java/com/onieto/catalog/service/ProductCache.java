@@ -0,0 +1,74 @@
+package com.onieto.catalog.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.onieto.catalog.dto.ProductSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Caché local, acotada y con TTL de productos por id. Guarda {@link ProductSnapshot}
+ * inmutables; las escrituras de {@link ProductService} la invalidan de forma síncrona.
+ * Aciertos, fallos y desalojos se publican como métricas {@code cache.*{cache=products}}.
+ */
+@Component
+public class ProductCache {
+
+    private final Cache<String, ProductSnapshot> cache;
+    // Cuenta las invalidaciones; permite descartar una carga por lotes que leyó antes de una de ellas
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductCache(@Value("${catalog.cache.products.maximum-size:10000}") long maximumSize,
+                        @Value("${catalog.cache.products.ttl:5m}") Duration ttl,
+                        MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+    }
+
+    public ProductSnapshot get(String id, Function<String, ProductSnapshot> loader) {
+        return cache.get(id, loader);
+    }
+
+    public Map<String, ProductSnapshot> getAllPresent(Iterable<String> ids) {
+        return cache.getAllPresent(ids);
+    }
+
+    // Se toma antes de leer de la base los productos que luego se pasan a putAll
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    /**
+     * Guarda productos leídos fuera de {@link #get}. Si hubo alguna invalidación desde {@code stamp}
+     * se quitan de nuevo, porque pueden ser anteriores a esa escritura. Se guardan antes de comparar:
+     * una invalidación posterior a la comparación ya los encuentra en la caché y los elimina.
+     */
+    public void putAll(Map<String, ProductSnapshot> snapshots, long stamp) {
+        cache.putAll(snapshots);
+        if (invalidations.get() != stamp) {
+            cache.invalidateAll(snapshots.keySet());
+        }
+    }
+
+    public void evict(String id) {
+        invalidations.incrementAndGet();
+        cache.invalidate(id);
+    }
+
+    // Renombrar una categoría o unidad deja obsoletos todos los productos que la referencian
+    public void evictAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+}
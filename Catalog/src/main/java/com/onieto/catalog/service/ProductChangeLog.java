@@ -0,0 +1,193 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.dto.ProductChangeEvent;
+import com.onieto.catalog.dto.ProductChangePage;
+import com.onieto.catalog.dto.ProductSnapshot;
+import com.onieto.catalog.model.Product;
+import com.onieto.catalog.model.ProductChange;
+import com.onieto.catalog.repository.ProductChangeRepository;
+import com.onieto.catalog.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Feed de cambios de productos para sincronizar cachés e índices externos de forma incremental.
+ * <p>
+ * Cada escritura agrega una fila en {@code product_changes} dentro de su propia transacción,
+ * todavía sin secuencia. Un único publicador numera después las filas ya confirmadas; así una
+ * transacción lenta nunca queda con un número menor que otro que un cliente ya leyó.
+ * Registrar un cambio también marca la tabla de productos como modificada en {@link CatalogVersions}.
+ */
+@Slf4j
+@Service
+public class ProductChangeLog {
+
+    public static final int MAX_CHANGES_LIMIT = 1000;
+
+    // Clave del advisory lock que asegura un solo publicador aunque haya varias instancias
+    private static final long PUBLISHER_LOCK_KEY = 0x70726f645f636867L;
+
+    private static final String INSERT_SQL =
+            "insert into product_changes (product_id, change_type, changed_at) values (?, ?, ?)";
+    private static final String INSERT_BY_CATEGORY_SQL =
+            "insert into product_changes (product_id, change_type, changed_at)"
+                    + " select id, 'UPSERT', ? from products where categoria_id = ?";
+    private static final String INSERT_BY_UNIT_SQL =
+            "insert into product_changes (product_id, change_type, changed_at)"
+                    + " select id, 'UPSERT', ? from products where unit_id = ?";
+    private static final String PUBLISH_SQL = """
+            with pending as (
+                select id, row_number() over (order by id) as position
+                from product_changes where seq is null
+            ), last as (
+                select coalesce(max(seq), 0) as seq from product_changes
+            )
+            update product_changes c set seq = last.seq + pending.position
+            from pending, last
+            where c.id = pending.id
+            """;
+    private static final String COMPACT_SUPERSEDED_SQL = """
+            delete from product_changes c
+            where c.seq is not null and c.changed_at < ?
+              and exists (select 1 from product_changes n where n.product_id = c.product_id and n.seq > c.seq)
+            """;
+    private static final String COMPACT_TOMBSTONES_SQL =
+            "delete from product_changes where change_type = 'DELETE' and seq is not null and changed_at < ?";
+
+    private final ProductChangeRepository productChangeRepository;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogVersions catalogVersions;
+    private final Duration retention;
+    private final Duration tombstoneRetention;
+
+    public ProductChangeLog(ProductChangeRepository productChangeRepository,
+                            ProductRepository productRepository,
+                            JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            CatalogVersions catalogVersions,
+                            @Value("${catalog.changes.retention:7d}") Duration retention,
+                            @Value("${catalog.changes.tombstone-retention:30d}") Duration tombstoneRetention) {
+        this.productChangeRepository = productChangeRepository;
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.catalogVersions = catalogVersions;
+        this.retention = retention;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    public void recordUpsert(String productId) {
+        recordAll(List.of(productId), ProductChange.Type.UPSERT);
+    }
+
+    public void recordDelete(String productId) {
+        recordAll(List.of(productId), ProductChange.Type.DELETE);
+    }
+
+    public void recordAll(Collection<String> productIds, ProductChange.Type type) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, productIds.stream()
+                .map(id -> new Object[]{id, type.name(), now})
+                .toList());
+        catalogVersions.touch(CatalogVersions.Table.PRODUCTS);
+    }
+
+    /**
+     * Registra un cambio por cada producto de la categoría: su nombre forma parte del producto publicado.
+     */
+    public void recordCategory(Long categoryId) {
+        jdbcTemplate.update(INSERT_BY_CATEGORY_SQL, Timestamp.valueOf(LocalDateTime.now()), categoryId);
+        catalogVersions.touch(CatalogVersions.Table.PRODUCTS);
+    }
+
+    public void recordUnit(Long unitId) {
+        jdbcTemplate.update(INSERT_BY_UNIT_SQL, Timestamp.valueOf(LocalDateTime.now()), unitId);
+        catalogVersions.touch(CatalogVersions.Table.PRODUCTS);
+    }
+
+    /**
+     * Devuelve los cambios con secuencia mayor a {@code since}, en orden. Cada evento trae el
+     * estado actual del producto: si ya no existe se informa como baja aunque la fila sea un alta.
+     */
+    public ProductChangePage getChanges(Long since, Integer limit) {
+        long from = since != null ? since : 0L;
+        int size = limit != null ? limit : 100;
+        if (from < 0) {
+            throw new IllegalArgumentException("El parámetro since no puede ser negativo.");
+        }
+        if (size < 1 || size > MAX_CHANGES_LIMIT) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + MAX_CHANGES_LIMIT + ".");
+        }
+
+        List<ProductChange> changes = productChangeRepository.findBySeqGreaterThanOrderBySeqAsc(from, Limit.of(size + 1));
+        boolean hasMore = changes.size() > size;
+        if (hasMore) {
+            changes = changes.subList(0, size);
+        }
+
+        List<String> ids = changes.stream().map(ProductChange::getProductId).distinct().toList();
+        Map<String, ProductSnapshot> current = ids.isEmpty()
+                ? Map.of()
+                : productRepository.findAllWithReferencesByIdIn(ids).stream()
+                        .collect(Collectors.toMap(Product::getId, ProductSnapshot::from, (a, b) -> a));
+
+        List<ProductChangeEvent> events = changes.stream()
+                .map(change -> {
+                    ProductSnapshot product = current.get(change.getProductId());
+                    ProductChange.Type type = product != null ? ProductChange.Type.UPSERT : ProductChange.Type.DELETE;
+                    return new ProductChangeEvent(change.getSeq(), change.getProductId(), type,
+                            change.getChangedAt(), product);
+                })
+                .toList();
+        long next = changes.isEmpty() ? from : changes.get(changes.size() - 1).getSeq();
+        return new ProductChangePage(events, next, hasMore);
+    }
+
+    /**
+     * Numera las filas confirmadas que aún no tienen secuencia. Si otra instancia está publicando
+     * se omite esta pasada.
+     */
+    @Scheduled(fixedDelayString = "${catalog.changes.publish-interval:1s}",
+            initialDelayString = "${catalog.changes.publish-interval:1s}")
+    public void publish() {
+        Integer published = transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject("select pg_try_advisory_xact_lock(?)", Boolean.class,
+                    PUBLISHER_LOCK_KEY);
+            return Boolean.TRUE.equals(locked) ? jdbcTemplate.update(PUBLISH_SQL) : 0;
+        });
+        if (published != null && published > 0) {
+            log.debug("Cambios de productos publicados: {}", published);
+        }
+    }
+
+    /**
+     * Borra las filas reemplazadas por un cambio posterior del mismo producto una vez vencida la
+     * retención, y las bajas tras su propia retención. Un cliente que lee al menos una vez dentro de
+     * ese plazo no pierde ninguna baja.
+     */
+    @Scheduled(cron = "${catalog.changes.compaction-cron:0 30 3 * * *}")
+    public void compact() {
+        LocalDateTime now = LocalDateTime.now();
+        int superseded = jdbcTemplate.update(COMPACT_SUPERSEDED_SQL, Timestamp.valueOf(now.minus(retention)));
+        int tombstones = jdbcTemplate.update(COMPACT_TOMBSTONES_SQL, Timestamp.valueOf(now.minus(tombstoneRetention)));
+        log.info("Feed de productos compactado: {} cambios reemplazados y {} bajas eliminadas", superseded, tombstones);
+    }
+}
@@ -0,0 +1,102 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.model.Product;
+import com.onieto.catalog.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conteo de productos por categoría y por unidad, total y solo disponibles (activos y con stock).
+ * Se calcula una vez al arrancar con un GROUP BY y luego {@link ProductService} lo ajusta en
+ * cada escritura, por lo que leerlo no consulta la tabla de productos.
+ */
+@Slf4j
+@Component
+public class ProductFacetCounter {
+
+    private final ProductRepository productRepository;
+
+    private volatile Counts counts = new Counts();
+
+    public ProductFacetCounter(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Clasificación de un producto para el conteo. Un producto se cuenta en la categoría y
+     * la unidad de su clave, y además en los disponibles si {@code available} es verdadero.
+     */
+    public record Key(Long categoryId, Long unitId, boolean available) {
+
+        public static Key of(Product product) {
+            return new Key(
+                    product.getCategoria().getId(),
+                    product.getUnid().getId(),
+                    Objects.equals(product.getActivo(), 1) && product.getStock() != null && product.getStock() > 0);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Counts fresh = new Counts();
+        for (Object[] row : productRepository.countFacets()) {
+            fresh.apply(new Key((Long) row[0], (Long) row[1], (Boolean) row[2]), (Long) row[3]);
+        }
+        counts = fresh;
+        log.info("Conteo de productos por categoría y unidad cargado");
+    }
+
+    public void add(Key key) {
+        counts.apply(key, 1);
+    }
+
+    public void remove(Key key) {
+        counts.apply(key, -1);
+    }
+
+    public void move(Key before, Key after) {
+        if (before.equals(after)) {
+            return;
+        }
+        Counts current = counts;
+        current.apply(before, -1);
+        current.apply(after, 1);
+    }
+
+    public Map<Long, Long> countByCategory(boolean onlyAvailable) {
+        Counts current = counts;
+        return Map.copyOf(onlyAvailable ? current.availableByCategory : current.byCategory);
+    }
+
+    public Map<Long, Long> countByUnit(boolean onlyAvailable) {
+        Counts current = counts;
+        return Map.copyOf(onlyAvailable ? current.availableByUnit : current.byUnit);
+    }
+
+    private static final class Counts {
+        private final Map<Long, Long> byCategory = new ConcurrentHashMap<>();
+        private final Map<Long, Long> byUnit = new ConcurrentHashMap<>();
+        private final Map<Long, Long> availableByCategory = new ConcurrentHashMap<>();
+        private final Map<Long, Long> availableByUnit = new ConcurrentHashMap<>();
+
+        void apply(Key key, long delta) {
+            merge(byCategory, key.categoryId(), delta);
+            merge(byUnit, key.unitId(), delta);
+            if (key.available()) {
+                merge(availableByCategory, key.categoryId(), delta);
+                merge(availableByUnit, key.unitId(), delta);
+            }
+        }
+
+        // Las entradas que llegan a 0 se eliminan para no acumular ids de categorías borradas
+        private static void merge(Map<Long, Long> target, Long id, long delta) {
+            target.merge(id, delta, (current, change) -> current + change == 0 ? null : current + change);
+        }
+    }
+}
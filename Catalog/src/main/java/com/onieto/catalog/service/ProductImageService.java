@@ -0,0 +1,325 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.dto.ProductImageMetadata;
+import com.onieto.catalog.exception.ConflictException;
+import com.onieto.catalog.exception.ResourceNotFoundException;
+import com.onieto.catalog.model.ProductImage;
+import com.onieto.catalog.model.ProductImageBlob;
+import com.onieto.catalog.repository.ProductImageBlobRepository;
+import com.onieto.catalog.repository.ProductImageRepository;
+import com.onieto.catalog.repository.ProductImageVariantRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Blob;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ProductImageService {
+
+    // Con ?v=<hash> la URL identifica un contenido concreto y puede cachearse sin revalidar
+    private static final CacheControl VERSIONED_CACHE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    private static final CacheControl UNVERSIONED_CACHE = CacheControl.maxAge(Duration.ofHours(1)).cachePublic();
+    // Original servido en lugar de una miniatura que aún no se genera: no debe quedar en caché
+    private static final CacheControl PENDING_VARIANT_CACHE = CacheControl.noCache();
+
+    private final ProductImageRepository productImageRepository;
+    private final ProductImageBlobRepository blobRepository;
+    private final ProductImageVariantRepository variantRepository;
+    private final ProductThumbnailService thumbnailService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ProductImage getImage(String productId) {
+        return productImageRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Imagen no encontrada para el producto: " + productId));
+    }
+
+    public Optional<ProductImage> findImage(String productId) {
+        return productImageRepository.findById(productId);
+    }
+
+    public List<ProductImage> findImages(Collection<String> productIds) {
+        return productImageRepository.findAllByProductIdIn(productIds);
+    }
+
+    public Set<String> findProductIdsWithImage(Collection<String> productIds) {
+        return productImageRepository.findExistingProductIds(productIds);
+    }
+
+    public Optional<String> getContentHash(String productId) {
+        return productImageRepository.findContentHashByProductId(productId);
+    }
+
+    // Solo los hashes, sin leer los bytes: los productos sin imagen no aparecen en el mapa
+    public Map<String, String> getContentHashes(Collection<String> productIds) {
+        return productImageRepository.findMetadataByProductIdIn(productIds).stream()
+                .collect(Collectors.toMap(ProductImageMetadata::productId, ProductImageMetadata::contentHash));
+    }
+
+    /**
+     * Guarda o reemplaza la imagen del producto. Si {@code data} es nulo o vacío
+     * se elimina la imagen existente; si el contenido no cambió no se reescribe.
+     * Cada contenido nuevo encola la generación de sus miniaturas una vez confirmada la transacción,
+     * para que el hilo de miniaturas lea la fila ya guardada y no la anterior.
+     * <p>
+     * Tanto el contenido nuevo como el reemplazado quedan en {@code product_image_blobs}, una vez por
+     * hash, para que las URLs con {@code ?v=<hash>} de las órdenes sigan respondiendo.
+     */
+    public void saveImage(String productId, byte[] data) {
+        if (data == null || data.length == 0) {
+            deleteImage(productId);
+            return;
+        }
+
+        String hash = sha256(data);
+        Optional<String> currentHash = productImageRepository.findContentHashByProductId(productId);
+        if (currentHash.isPresent() && currentHash.get().equals(hash)) {
+            return;
+        }
+
+        currentHash.ifPresent(previous -> archiveCurrent(productId, previous));
+        ProductImage image = ProductImage.builder()
+                .productId(productId)
+                .contentHash(hash)
+                .contentType(detectContentType(data))
+                .contentLength((long) data.length)
+                .data(data)
+                .build();
+        archive(image);
+        productImageRepository.save(image);
+        AfterCommit.run(() -> thumbnailService.scheduleThumbnails(productId));
+    }
+
+    public void deleteImage(String productId) {
+        productImageRepository.findContentHashByProductId(productId).ifPresent(hash -> {
+            archiveCurrent(productId, hash);
+            thumbnailService.deleteThumbnails(productId);
+            productImageRepository.deleteById(productId);
+        });
+    }
+
+    // Las imágenes guardadas antes de existir el almacén por hash se copian al reemplazarlas o quitarlas
+    private void archiveCurrent(String productId, String hash) {
+        if (!blobRepository.existsById(hash)) {
+            productImageRepository.findById(productId).ifPresent(this::archive);
+        }
+    }
+
+    private void archive(ProductImage image) {
+        if (!blobRepository.existsById(image.getContentHash())) {
+            blobRepository.save(ProductImageBlob.builder()
+                    .contentHash(image.getContentHash())
+                    .contentType(image.getContentType())
+                    .contentLength(image.getContentLength())
+                    .data(image.getData())
+                    .build());
+        }
+    }
+
+    /**
+     * Arma la respuesta de {@code GET /api/products/{id}/image}: 304 si el ETag coincide,
+     * 206 para un rango simple y 200 con el contenido completo en otro caso. Los bytes se
+     * copian desde la base de datos a la salida sin materializar la imagen en memoria.
+     * Con {@code size} se sirve la miniatura más chica de al menos ese ancho, o el original
+     * si no hay ninguna.
+     * <p>
+     * {@code version} es el hash del original. Si ya no es la imagen vigente se sirve el original de
+     * ese hash desde {@code product_image_blobs}, sin miniaturas; si el hash no existe se responde 404.
+     */
+    public ResponseEntity<StreamingResponseBody> buildImageResponse(String productId, Integer size,
+                                                                    HttpHeaders requestHeaders, String version) {
+        boolean versioned = StringUtils.hasText(version);
+        Optional<ProductImageMetadata> current = findMetadata(productId, size);
+        boolean archived = versioned && current.map(m -> !m.sourceHash().equals(version)).orElse(true);
+        ProductImageMetadata metadata = archived
+                ? findArchivedMetadata(productId, version)
+                : current.orElseThrow(() -> new ResourceNotFoundException("Imagen no encontrada para el producto: " + productId));
+
+        String etag = "\"" + metadata.contentHash() + "\"";
+        CacheControl cacheControl = versioned ? VERSIONED_CACHE : UNVERSIONED_CACHE;
+        if (size != null && metadata.isOriginal() && !metadata.variantsReady()) {
+            cacheControl = PENDING_VARIANT_CACHE;
+        }
+
+        if (matchesEtag(requestHeaders.getIfNoneMatch(), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        long length = metadata.contentLength();
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        long start = 0;
+        long count = length;
+
+        List<HttpRange> ranges = resolveRanges(requestHeaders, etag);
+        if (ranges.size() == 1) {
+            HttpRange range = ranges.get(0);
+            long end;
+            try {
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+            } catch (IllegalArgumentException e) {
+                start = length;
+                end = -1;
+            }
+            if (start >= length || end < start) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                        .build();
+            }
+            count = end - start + 1;
+            builder = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        long offset = start;
+        long bytes = count;
+        return builder
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(MediaType.parseMediaType(metadata.contentType()))
+                .contentLength(bytes)
+                .body(out -> copyImage(metadata, archived, offset, bytes, out));
+    }
+
+    private Optional<ProductImageMetadata> findMetadata(String productId, Integer size) {
+        if (size != null) {
+            if (size <= 0) {
+                throw new IllegalArgumentException("El tamaño de la imagen debe ser mayor que 0.");
+            }
+            List<ProductImageMetadata> variants = variantRepository.findCurrentMetadata(productId, size);
+            if (!variants.isEmpty()) {
+                return Optional.of(variants.get(0));
+            }
+        }
+        return productImageRepository.findMetadataByProductId(productId);
+    }
+
+    private ProductImageMetadata findArchivedMetadata(String productId, String version) {
+        return blobRepository.findMetadataByContentHash(version)
+                .map(m -> new ProductImageMetadata(productId, null, m.contentHash(), m.sourceHash(),
+                        m.contentType(), m.contentLength(), true))
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "No existe la versión " + version + " de la imagen del producto: " + productId));
+    }
+
+    /**
+     * Copia los bytes que corresponden a los metadatos con los que se armó la respuesta. La consulta
+     * exige el mismo hash y se comprueba el largo: si la imagen se reemplazó entre la lectura de
+     * metadatos y el envío, se aborta en lugar de mezclar el contenido nuevo con el ETag, el rango y
+     * el Content-Length ya calculados. El cliente ve la respuesta incompleta y vuelve a pedirla.
+     * Una versión archivada se lee por hash y no cambia.
+     */
+    private void copyImage(ProductImageMetadata metadata, boolean archived, long offset, long count, OutputStream out) {
+        String sql;
+        Object[] args;
+        if (archived) {
+            sql = "select data from product_image_blobs where content_hash = ?";
+            args = new Object[]{metadata.contentHash()};
+        } else if (metadata.isOriginal()) {
+            sql = "select data from product_images where product_id = ? and content_hash = ?";
+            args = new Object[]{metadata.productId(), metadata.contentHash()};
+        } else {
+            sql = "select data from product_image_variants where product_id = ? and width = ? and content_hash = ?";
+            args = new Object[]{metadata.productId(), metadata.width(), metadata.contentHash()};
+        }
+
+        // Los large objects de PostgreSQL solo se pueden leer dentro de una transacción
+        transactionTemplate.executeWithoutResult(status -> {
+            Boolean copied = jdbcTemplate.query(sql, rs -> {
+                if (!rs.next()) {
+                    return false;
+                }
+                Blob blob = rs.getBlob(1);
+                try {
+                    if (blob.length() != metadata.contentLength()) {
+                        return false;
+                    }
+                    try (InputStream in = blob.getBinaryStream(offset + 1, count)) {
+                        in.transferTo(out);
+                    }
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    blob.free();
+                }
+            }, args);
+            if (!Boolean.TRUE.equals(copied)) {
+                throw new ConflictException("La imagen del producto " + metadata.productId()
+                        + " cambió durante la descarga; vuelva a solicitarla.");
+            }
+        });
+    }
+
+    private List<HttpRange> resolveRanges(HttpHeaders requestHeaders, String etag) {
+        String rangeHeader = requestHeaders.getFirst(HttpHeaders.RANGE);
+        if (!StringUtils.hasText(rangeHeader)) {
+            return List.of();
+        }
+        // If-Range con un ETag distinto implica que la copia del cliente cambió: se envía completa
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (StringUtils.hasText(ifRange) && !ifRange.equals(etag)) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    private boolean matchesEtag(List<String> ifNoneMatch, String etag) {
+        return ifNoneMatch.stream()
+                .anyMatch(candidate -> candidate.equals("*") || candidate.equals(etag)
+                        || candidate.equals("W/" + etag));
+    }
+
+    public static String sha256(byte[] data) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    static String detectContentType(byte[] data) {
+        try {
+            String guessed = URLConnection.guessContentTypeFromStream(new ByteArrayInputStream(data));
+            return guessed != null ? guessed : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        } catch (IOException e) {
+            return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.onieto.catalog.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onieto.catalog.dto.ProductDto;
+import com.onieto.catalog.dto.ProductImportReport;
+import com.onieto.catalog.model.Category;
+import com.onieto.catalog.model.Product;
+import com.onieto.catalog.model.ProductChange;
+import com.onieto.catalog.model.Unit;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de productos desde NDJSON o CSV. El cuerpo se lee fila a fila, cada fila
+ * se valida contra las restricciones de {@link ProductDto} y las válidas se insertan (o
+ * actualizan si el id ya existe) en lotes JDBC, con una transacción por lote.
+ *
+ * <p>Además de {@code categoriaId}/{@code unidadId}, cada fila puede indicar la categoría y la
+ * unidad por nombre con {@code categoria}/{@code unidad}. La imagen, si viene, se envía en
+ * base64 en {@code imagen} y se guarda en la misma transacción que su lote. En CSV la primera línea
+ * es el encabezado con los nombres de columna. Un id repetido dentro de un mismo lote se rechaza:
+ * el upsert no admite dos filas con la misma clave en una sola sentencia.
+ */
+@Slf4j
+@Service
+public class ProductImportService {
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+    public static final String CSV_VALUE = "text/csv";
+
+    private static final String UPSERT_SQL = "insert into products " +
+            "(id, nombre, descripcion, precio, stock, stock_minimo, activo, categoria_id, unit_id) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "on conflict (id) do update set nombre = excluded.nombre, descripcion = excluded.descripcion, " +
+            "precio = excluded.precio, stock = excluded.stock, stock_minimo = excluded.stock_minimo, " +
+            "activo = excluded.activo, categoria_id = excluded.categoria_id, unit_id = excluded.unit_id, " +
+            "version = products.version + 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final CategoryService categoryService;
+    private final UnitService unitService;
+    private final ProductImageService productImageService;
+    private final ProductCache productCache;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final ProductFacetCounter productFacetCounter;
+    private final LowStockWatchList lowStockWatchList;
+    private final ProductChangeLog productChangeLog;
+    private final int batchSize;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                CategoryService categoryService,
+                                UnitService unitService,
+                                ProductImageService productImageService,
+                                ProductCache productCache,
+                                ProductSuggestIndex productSuggestIndex,
+                                ProductFacetCounter productFacetCounter,
+                                LowStockWatchList lowStockWatchList,
+                                ProductChangeLog productChangeLog,
+                                @Value("${catalog.import.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.categoryService = categoryService;
+        this.unitService = unitService;
+        this.productImageService = productImageService;
+        this.productCache = productCache;
+        this.productSuggestIndex = productSuggestIndex;
+        this.productFacetCounter = productFacetCounter;
+        this.lowStockWatchList = lowStockWatchList;
+        this.productChangeLog = productChangeLog;
+        this.batchSize = batchSize;
+    }
+
+    public ProductImportReport importProducts(InputStream body, MediaType contentType) {
+        boolean csv = contentType != null && MediaType.parseMediaType(CSV_VALUE).isCompatibleWith(contentType);
+        ImportRun run = new ImportRun(
+                categoryService.getAllCategories().stream()
+                        .collect(Collectors.toMap(Category::getId, Category::getName)),
+                unitService.getAllUnits().stream()
+                        .collect(Collectors.toMap(Unit::getId, Unit::getName)));
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            List<String> header = null;
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!StringUtils.hasText(line)) {
+                    continue;
+                }
+                if (csv && header == null) {
+                    header = parseCsvLine(line).stream().map(h -> h.trim().toLowerCase(Locale.ROOT)).toList();
+                    continue;
+                }
+                run.processed++;
+                ImportRow row = csv ? parseCsvRow(run, header, line, lineNumber) : parseJsonRow(run, line, lineNumber);
+                if (row != null) {
+                    run.accept(row);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error leyendo el archivo de importación", e);
+        } finally {
+            run.flush();
+            if (run.imported > 0) {
+                productFacetCounter.rebuild();
+            }
+        }
+
+        run.errors.sort(Comparator.comparingLong(ProductImportReport.RowError::line));
+        log.info("Importación finalizada: {} filas, {} guardadas, {} con error",
+                run.processed, run.imported, run.errors.size());
+        return new ProductImportReport(run.processed, run.imported, run.errors);
+    }
+
+    private ImportRow parseJsonRow(ImportRun run, String line, long lineNumber) {
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            ProductDto dto = objectMapper.treeToValue(node, ProductDto.class);
+            return new ImportRow(lineNumber, dto, node.path("categoria").asText(null), node.path("unidad").asText(null));
+        } catch (JsonProcessingException e) {
+            run.reject(lineNumber, null, "JSON inválido: " + e.getOriginalMessage());
+            return null;
+        }
+    }
+
+    private ImportRow parseCsvRow(ImportRun run, List<String> header, String line, long lineNumber) {
+        List<String> values = parseCsvLine(line);
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.size() && i < values.size(); i++) {
+            fields.put(header.get(i), StringUtils.hasText(values.get(i)) ? values.get(i).trim() : null);
+        }
+        String id = fields.get("id");
+        try {
+            ProductDto dto = ProductDto.builder()
+                    .id(id)
+                    .nombre(fields.get("nombre"))
+                    .descripcion(fields.get("descripcion"))
+                    .precio(parse(fields.get("precio"), Integer::valueOf))
+                    .stock(parse(fields.get("stock"), Integer::valueOf))
+                    .stockMinimo(parse(fields.get("stockminimo"), Integer::valueOf))
+                    .activo(parse(fields.get("activo"), Integer::valueOf))
+                    .categoriaId(parse(fields.get("categoriaid"), Long::valueOf))
+                    .unidadId(parse(fields.get("unidadid"), Long::valueOf))
+                    .imagen(parse(fields.get("imagen"), Base64.getDecoder()::decode))
+                    .build();
+            return new ImportRow(lineNumber, dto, fields.get("categoria"), fields.get("unidad"));
+        } catch (IllegalArgumentException e) {
+            run.reject(lineNumber, id, "Valor inválido: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static <T> T parse(String value, Function<String, T> parser) {
+        return value != null ? parser.apply(value) : null;
+    }
+
+    /**
+     * Separa una línea CSV por comas respetando campos entre comillas dobles ({@code ""} escapa
+     * una comilla). Los campos con saltos de línea no están soportados.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private record ImportRow(long line, ProductDto dto, String categoryName, String unitName) {
+    }
+
+    /**
+     * Estado de una importación en curso: referencias en memoria, lote pendiente y reporte.
+     */
+    private final class ImportRun {
+
+        private final Map<Long, String> categories;
+        private final Map<Long, String> units;
+        private final Map<String, Long> categoryIdsByName;
+        private final Map<String, Long> unitIdsByName;
+        private final List<ImportRow> batch = new ArrayList<>();
+        // Línea de cada id del lote pendiente
+        private final Map<String, Long> batchLines = new HashMap<>();
+        private final List<ProductImportReport.RowError> errors = new ArrayList<>();
+        private int processed;
+        private int imported;
+
+        ImportRun(Map<Long, String> categories, Map<Long, String> units) {
+            this.categories = categories;
+            this.units = units;
+            this.categoryIdsByName = invert(categories);
+            this.unitIdsByName = invert(units);
+        }
+
+        void reject(long line, String id, String message) {
+            errors.add(new ProductImportReport.RowError(line, id, message));
+        }
+
+        void accept(ImportRow row) {
+            ProductDto dto = row.dto();
+            if (dto.getCategoriaId() == null && row.categoryName() != null) {
+                dto.setCategoriaId(categoryIdsByName.get(row.categoryName().toLowerCase(Locale.ROOT)));
+            }
+            if (dto.getUnidadId() == null && row.unitName() != null) {
+                dto.setUnidadId(unitIdsByName.get(row.unitName().toLowerCase(Locale.ROOT)));
+            }
+
+            List<String> problems = validator.validate(dto).stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.toCollection(ArrayList::new));
+            if (dto.getCategoriaId() != null && !categories.containsKey(dto.getCategoriaId())) {
+                problems.add("Categoría no encontrada: " + dto.getCategoriaId());
+            }
+            if (dto.getUnidadId() != null && !units.containsKey(dto.getUnidadId())) {
+                problems.add("Unidad no encontrada: " + dto.getUnidadId());
+            }
+            if (!problems.isEmpty()) {
+                reject(row.line(), dto.getId(), String.join("; ", problems));
+                return;
+            }
+            Long previous = batchLines.putIfAbsent(dto.getId(), row.line());
+            if (previous != null) {
+                reject(row.line(), dto.getId(), "Id repetido en el mismo lote (línea " + previous + ")");
+                return;
+            }
+
+            batch.add(row);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<ImportRow> rows = List.copyOf(batch);
+            batch.clear();
+            batchLines.clear();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(UPSERT_SQL, rows.stream().map(r -> toArgs(r.dto())).toList());
+                    rows.stream()
+                            .filter(r -> r.dto().getImagen() != null)
+                            .forEach(r -> productImageService.saveImage(r.dto().getId(), r.dto().getImagen()));
+                    productChangeLog.recordAll(rows.stream().map(r -> r.dto().getId()).toList(),
+                            ProductChange.Type.UPSERT);
+                });
+            } catch (DataAccessException e) {
+                // El lote completo se revierte: todas sus filas se informan con el error de la base
+                String message = "Error al guardar el lote: " + e.getMostSpecificCause().getMessage();
+                rows.forEach(r -> reject(r.line(), r.dto().getId(), message));
+                return;
+            }
+
+            imported += rows.size();
+            for (ImportRow row : rows) {
+                ProductDto dto = row.dto();
+                productCache.evict(dto.getId());
+                productSuggestIndex.put(dto.getId(), dto.getNombre());
+                lowStockWatchList.update(dto.getId(), dto.getNombre(), dto.getStock(), stockMinimo(dto));
+            }
+        }
+
+        private Object[] toArgs(ProductDto dto) {
+            return new Object[]{
+                    dto.getId(),
+                    dto.getNombre(),
+                    dto.getDescripcion(),
+                    dto.getPrecio(),
+                    dto.getStock(),
+                    stockMinimo(dto),
+                    dto.getActivo() != null ? dto.getActivo() : Product.DEFAULT_ACTIVO,
+                    dto.getCategoriaId(),
+                    dto.getUnidadId()
+            };
+        }
+
+        private Integer stockMinimo(ProductDto dto) {
+            return dto.getStockMinimo() != null ? dto.getStockMinimo() : Product.DEFAULT_STOCK_MINIMO;
+        }
+
+        private static Map<String, Long> invert(Map<Long, String> names) {
+            Map<String, Long> ids = new HashMap<>();
+            names.forEach((id, name) -> ids.put(name.toLowerCase(Locale.ROOT), id));
+            return ids;
+        }
+    }
+}
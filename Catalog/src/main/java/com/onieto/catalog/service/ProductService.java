@@ -1,7 +1,14 @@
 package com.onieto.catalog.service;
 
 import com.onieto.catalog.controller.response.MessageResponse;
+import com.onieto.catalog.dto.CursorPage;
+import com.onieto.catalog.dto.FacetCount;
+import com.onieto.catalog.dto.ProductBatchResponse;
 import com.onieto.catalog.dto.ProductDto;
+import com.onieto.catalog.dto.ProductFacets;
+import com.onieto.catalog.dto.ProductSnapshot;
+import com.onieto.catalog.dto.ProductSuggestion;
+import com.onieto.catalog.dto.ProductSummary;
 import com.onieto.catalog.exception.ResourceNotFoundException;
 import com.onieto.catalog.model.Category;
 import com.onieto.catalog.model.Product;
@@ -16,36 +23,194 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    public static final int MAX_CURSOR_LIMIT = 100;
+    public static final int MAX_BATCH_SIZE = 500;
+    public static final int MAX_SUGGESTIONS = 50;
+
     private final ProductRepository productRepository;
     private final CategoryService categoryService;
     private final UnitService unitService;
+    private final ProductImageService productImageService;
+    private final ProductCache productCache;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final ProductFacetCounter productFacetCounter;
+    private final LowStockWatchList lowStockWatchList;
+    private final ProductChangeLog productChangeLog;
 
-    public Page<Product> getProducts(Integer page, Integer size, Long categoryId, Long unitId) {
+    public Page<ProductSummary> getProducts(Integer page, Integer size, Long categoryId, Long unitId) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("id").ascending());
+        return productRepository.findSummaries(categoryId, unitId, pageable);
+    }
 
-        if (categoryId != null && unitId != null) {
-            return productRepository.findByCategoriaIdAndUnidId(categoryId, unitId, pageable);
-        } else if (categoryId != null) {
-            return productRepository.findByCategoriaId(categoryId, pageable);
-        } else if (unitId != null) {
-            return productRepository.findByUnidId(unitId, pageable);
-        } else {
-            return productRepository.findAll(pageable);
+    public Page<ProductSummary> searchProducts(String query, Integer page, Integer size) {
+        if (!StringUtils.hasText(query)) {
+            throw new IllegalArgumentException("Debe indicar un texto de búsqueda.");
         }
+        if (size == null || size < 1 || size > MAX_CURSOR_LIMIT) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + MAX_CURSOR_LIMIT + ".");
+        }
+        return productRepository.searchSummaries(query.trim(), PageRequest.of(page, size));
+    }
+
+    public List<ProductSuggestion> suggestProducts(String prefix, Integer limit) {
+        if (limit == null || limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + MAX_SUGGESTIONS + ".");
+        }
+        return productSuggestIndex.suggest(prefix, limit);
+    }
+
+    /**
+     * Conteos por categoría y unidad mantenidos en memoria; con {@code onlyAvailable} solo se
+     * cuentan los productos activos y con stock.
+     */
+    public ProductFacets getFacets(boolean onlyAvailable) {
+        Map<Long, Long> byCategory = productFacetCounter.countByCategory(onlyAvailable);
+        Map<Long, Long> byUnit = productFacetCounter.countByUnit(onlyAvailable);
+        List<FacetCount> categorias = categoryService.getAllCategories().stream()
+                .map(c -> new FacetCount(c.getId(), c.getName(), byCategory.getOrDefault(c.getId(), 0L)))
+                .toList();
+        List<FacetCount> unidades = unitService.getAllUnits().stream()
+                .map(u -> new FacetCount(u.getId(), u.getName(), byUnit.getOrDefault(u.getId(), 0L)))
+                .toList();
+        return new ProductFacets(categorias, unidades);
+    }
+
+    /**
+     * Recorre el catálogo por cursor: busca los productos con id mayor al del cursor,
+     * ordenados por id, y pide uno extra para saber si existe una página siguiente.
+     */
+    public CursorPage<ProductSummary> getProductsAfter(String cursor, Integer limit, Long categoryId, Long unitId) {
+        if (limit == null || limit < 1 || limit > MAX_CURSOR_LIMIT) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + MAX_CURSOR_LIMIT + ".");
+        }
+        String afterId = decodeCursor(cursor);
+        List<ProductSummary> rows = productRepository.findSummariesAfter(categoryId, unitId, afterId, limit + 1);
+
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<ProductSummary> items = rows.subList(0, limit);
+        return new CursorPage<>(items, encodeCursor(items.get(limit - 1).id()));
+    }
+
+    static String encodeCursor(String lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decodeCursor(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return "";
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido.");
+        }
+    }
+
+
+    public ProductSnapshot getProductById(String id) {
+        return productCache.get(id, key -> ProductSnapshot.from(findProduct(key)));
+    }
+
+    public ProductSnapshot getProductWithImage(String id) {
+        ProductSnapshot product = getProductById(id);
+        return productImageService.findImage(id)
+                .map(image -> product.withImagen(image.getData()))
+                .orElse(product);
     }
 
+    public ProductSnapshot getProductWithImageHash(String id) {
+        ProductSnapshot product = getProductById(id);
+        return productImageService.getContentHash(id)
+                .map(product::withImagenHash)
+                .orElse(product);
+    }
 
-    public Product getProductById(String id) {
+    public ProductBatchResponse getProductsByIds(Collection<String> ids, boolean includeImage) {
+        return getProductsByIds(ids, includeImage, false);
+    }
+
+    /**
+     * Resuelve varios productos a la vez: primero desde la caché y el resto con una única
+     * consulta IN. Los ids repetidos se consultan una sola vez. Lo leído se guarda en caché salvo
+     * que una escritura la haya invalidado mientras tanto.
+     */
+    public ProductBatchResponse getProductsByIds(Collection<String> ids, boolean includeImage, boolean includeImageHash) {
+        Set<String> requested = ids == null ? Set.of() : ids.stream()
+                .filter(StringUtils::hasText)
+                .map(String::trim)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos un id de producto.");
+        }
+        if (requested.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("No se pueden consultar más de " + MAX_BATCH_SIZE + " productos a la vez.");
+        }
+
+        Map<String, ProductSnapshot> found = new HashMap<>(productCache.getAllPresent(requested));
+        List<String> toLoad = requested.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!toLoad.isEmpty()) {
+            long stamp = productCache.stamp();
+            Map<String, ProductSnapshot> loaded = productRepository.findAllWithReferencesByIdIn(toLoad).stream()
+                    .map(ProductSnapshot::from)
+                    .collect(Collectors.toMap(ProductSnapshot::id, Function.identity()));
+            productCache.putAll(loaded, stamp);
+            found.putAll(loaded);
+        }
+
+        if (includeImage && !found.isEmpty()) {
+            productImageService.findImages(found.keySet())
+                    .forEach(image -> found.computeIfPresent(image.getProductId(),
+                            (id, snapshot) -> snapshot.withImagen(image.getData())));
+        }
+        if (includeImageHash && !found.isEmpty()) {
+            productImageService.getContentHashes(found.keySet())
+                    .forEach((id, hash) -> found.computeIfPresent(id, (key, snapshot) -> snapshot.withImagenHash(hash)));
+        }
+
+        Map<String, ProductSnapshot> products = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : requested) {
+            ProductSnapshot snapshot = found.get(id);
+            if (snapshot != null) {
+                products.put(id, snapshot);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new ProductBatchResponse(products, missing);
+    }
+
+    private Product findProduct(String id) {
         return productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado: " + id));
     }
 
 
+    // Las cachés e índices en memoria se actualizan después del commit: un rollback no los toca y una
+    // lectura concurrente no puede volver a cachear la fila vieja entre la invalidación y el commit
+    @Transactional
     public ResponseEntity<?> createProduct(@Valid ProductDto dto) {
         Category category = categoryService.getCategoryById(dto.getCategoriaId());
         Unit unit = unitService.getUnitById(dto.getUnidadId());
@@ -60,15 +225,35 @@ public class ProductService {
                 .activo(resolveActivo(dto.getActivo()))
                 .categoria(category)
                 .unid(unit)
-                .imagen(dto.getImagen())
                 .build();
 
         productRepository.save(product);
+        productChangeLog.recordUpsert(product.getId());
+        productImageService.saveImage(product.getId(), dto.getImagen());
+        ProductFacetCounter.Key facets = ProductFacetCounter.Key.of(product);
+        AfterCommit.run(() -> {
+            productCache.evict(product.getId());
+            productSuggestIndex.put(product.getId(), product.getNombre());
+            productFacetCounter.add(facets);
+            lowStockWatchList.update(product.getId(), product.getNombre(), product.getStock(), product.getStockMinimo());
+        });
         return ResponseEntity.status(HttpStatus.CREATED).body(new MessageResponse("Producto creado exitosamente."));
     }
 
+    @Transactional
     public ResponseEntity<MessageResponse> updateProduct(String id, ProductDto dto) {
-        Product product = getProductById(id);
+        return updateProduct(id, dto, null);
+    }
+
+    /**
+     * Actualiza el producto si su versión coincide con {@code ifMatch}; si no, responde 412.
+     * Una escritura concurrente entre la lectura y el guardado se detecta por la columna de versión.
+     */
+    @Transactional
+    public ResponseEntity<MessageResponse> updateProduct(String id, ProductDto dto, String ifMatch) {
+        Product product = findProduct(id);
+        EntityVersions.checkIfMatch(ifMatch, product.getVersion(), "El producto fue modificado por otra solicitud: " + id);
+        ProductFacetCounter.Key previousFacets = ProductFacetCounter.Key.of(product);
         Category category = categoryService.getCategoryById(dto.getCategoriaId());
         Unit unit = unitService.getUnitById(dto.getUnidadId());
 
@@ -80,15 +265,39 @@ public class ProductService {
         product.setActivo(resolveActivo(dto.getActivo()));
         product.setCategoria(category);
         product.setUnid(unit);
-        product.setImagen(dto.getImagen());
 
-        productRepository.save(product);
-        return ResponseEntity.ok(new MessageResponse("Producto actualizado correctamente."));
+        // Se fuerza el UPDATE para que la versión del ETag sea la ya incrementada y no la leída
+        Product saved = productRepository.saveAndFlush(product);
+        productChangeLog.recordUpsert(id);
+        productImageService.saveImage(id, dto.getImagen());
+        ProductFacetCounter.Key facets = ProductFacetCounter.Key.of(product);
+        String nombre = product.getNombre();
+        Integer stock = product.getStock();
+        Integer stockMinimo = product.getStockMinimo();
+        AfterCommit.run(() -> {
+            productCache.evict(id);
+            productSuggestIndex.put(id, nombre);
+            productFacetCounter.move(previousFacets, facets);
+            lowStockWatchList.update(id, nombre, stock, stockMinimo);
+        });
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(saved.getVersion()))
+                .body(new MessageResponse("Producto actualizado correctamente."));
     }
 
+    @Transactional
     public ResponseEntity<MessageResponse> deleteProduct(String id) {
-        Product product = getProductById(id);
+        Product product = findProduct(id);
         productRepository.delete(product);
+        productChangeLog.recordDelete(id);
+        productImageService.deleteImage(id);
+        ProductFacetCounter.Key facets = ProductFacetCounter.Key.of(product);
+        AfterCommit.run(() -> {
+            productCache.evict(id);
+            productSuggestIndex.remove(id);
+            productFacetCounter.remove(facets);
+            lowStockWatchList.remove(id);
+        });
         return ResponseEntity.ok(new MessageResponse("Producto eliminado correctamente."));
     }
 
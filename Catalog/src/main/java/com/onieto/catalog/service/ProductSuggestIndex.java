@@ -0,0 +1,149 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.dto.ProductSuggestion;
+import com.onieto.catalog.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice en memoria de nombres de producto para autocompletar. Cada nombre se normaliza
+ * (sin tildes, en minúsculas) y se indexa desde el inicio de cada palabra en un mapa
+ * ordenado, de modo que una sugerencia es un recorrido por rango sin ir a la base de datos.
+ * Se carga completo al arrancar y {@link ProductService} lo actualiza en cada escritura.
+ */
+@Slf4j
+@Component
+public class ProductSuggestIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final char ID_SEPARATOR = '\u0000';
+
+    // Estimación aproximada del costo en heap (cabeceras de objetos, nodos del skip list y
+    // arreglos de caracteres Latin-1); sirve para seguir la tendencia, no como medida exacta
+    private static final long BYTES_PER_KEY = 96;
+    private static final long BYTES_PER_PRODUCT = 120;
+
+    private final ProductRepository productRepository;
+
+    private volatile NavigableMap<String, ProductSuggestion> entries = new ConcurrentSkipListMap<>();
+    private volatile Map<String, List<String>> keysById = new HashMap<>();
+    private volatile long estimatedBytes;
+
+    public ProductSuggestIndex(ProductRepository productRepository, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        Gauge.builder("catalog.products.suggest.entries", this, index -> index.entries.size())
+                .description("Claves del índice de autocompletado")
+                .register(meterRegistry);
+        Gauge.builder("catalog.products.suggest.memory", this, index -> index.estimatedBytes)
+                .description("Memoria estimada del índice de autocompletado")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ProductSuggestion> products = productRepository.findAllSuggestions();
+        NavigableMap<String, ProductSuggestion> newEntries = new ConcurrentSkipListMap<>();
+        Map<String, List<String>> newKeys = new HashMap<>();
+        long bytes = 0;
+        for (ProductSuggestion product : products) {
+            bytes += index(newEntries, newKeys, product);
+        }
+        synchronized (this) {
+            entries = newEntries;
+            keysById = newKeys;
+            estimatedBytes = bytes;
+        }
+        log.info("Índice de autocompletado cargado: {} productos, {} claves", products.size(), newEntries.size());
+    }
+
+    public synchronized void put(String id, String nombre) {
+        estimatedBytes -= unindex(id);
+        estimatedBytes += index(entries, keysById, new ProductSuggestion(id, nombre));
+    }
+
+    public synchronized void remove(String id) {
+        estimatedBytes -= unindex(id);
+    }
+
+    /**
+     * Devuelve hasta {@code limit} productos cuyo nombre tiene alguna palabra que empieza
+     * con {@code prefix}, en orden alfabético y sin repetir productos.
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        Map<String, ProductSuggestion> result = new LinkedHashMap<>();
+        for (ProductSuggestion suggestion : entries.subMap(normalized, true, normalized + Character.MAX_VALUE, false).values()) {
+            result.putIfAbsent(suggestion.id(), suggestion);
+            if (result.size() == limit) {
+                break;
+            }
+        }
+        return List.copyOf(result.values());
+    }
+
+    private long index(NavigableMap<String, ProductSuggestion> target, Map<String, List<String>> keys,
+                       ProductSuggestion product) {
+        String normalized = normalize(product.nombre());
+        if (normalized.isEmpty()) {
+            return 0;
+        }
+        List<String> productKeys = new ArrayList<>();
+        long bytes = BYTES_PER_PRODUCT + product.id().length() + product.nombre().length();
+        int start = 0;
+        while (start >= 0) {
+            String key = normalized.substring(start) + ID_SEPARATOR + product.id();
+            target.put(key, product);
+            productKeys.add(key);
+            bytes += BYTES_PER_KEY + key.length();
+            int space = normalized.indexOf(' ', start);
+            start = space < 0 ? -1 : space + 1;
+        }
+        keys.put(product.id(), productKeys);
+        return bytes;
+    }
+
+    private long unindex(String id) {
+        List<String> productKeys = keysById.remove(id);
+        if (productKeys == null) {
+            return 0;
+        }
+        ProductSuggestion product = null;
+        long bytes = 0;
+        for (String key : productKeys) {
+            product = entries.remove(key);
+            bytes += BYTES_PER_KEY + key.length();
+        }
+        if (product != null) {
+            bytes += BYTES_PER_PRODUCT + product.id().length() + product.nombre().length();
+        }
+        return bytes;
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String withoutMarks = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(withoutMarks.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,179 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.config.ThumbnailConfig;
+import com.onieto.catalog.model.ProductImage;
+import com.onieto.catalog.model.ProductImageVariant;
+import com.onieto.catalog.repository.ProductImageRepository;
+import com.onieto.catalog.repository.ProductImageVariantRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Genera en segundo plano las miniaturas de cada imagen de producto. Las miniaturas se calculan
+ * fuera de la transacción y se guardan en una que bloquea la fila de la imagen y comprueba que siga
+ * siendo la misma: una ejecución de un contenido ya reemplazado no escribe ni borra nada.
+ */
+@Slf4j
+@Service
+public class ProductThumbnailService {
+
+    private final ProductImageRepository productImageRepository;
+    private final ProductImageVariantRepository variantRepository;
+    private final TaskExecutor thumbnailExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final List<Integer> widths;
+    private final Counter completed;
+    private final Counter failed;
+    private final Counter rejected;
+    private final Timer resizeTimer;
+
+    public ProductThumbnailService(ProductImageRepository productImageRepository,
+                                   ProductImageVariantRepository variantRepository,
+                                   @Qualifier(ThumbnailConfig.THUMBNAIL_EXECUTOR) TaskExecutor thumbnailExecutor,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${catalog.images.thumbnails.widths:96,320,800}") List<Integer> widths,
+                                   MeterRegistry meterRegistry) {
+        this.productImageRepository = productImageRepository;
+        this.variantRepository = variantRepository;
+        this.thumbnailExecutor = thumbnailExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.widths = widths.stream().sorted().toList();
+        this.completed = meterRegistry.counter("catalog.images.thumbnails.completed");
+        this.failed = meterRegistry.counter("catalog.images.thumbnails.failed");
+        this.rejected = meterRegistry.counter("catalog.images.thumbnails.rejected");
+        this.resizeTimer = meterRegistry.timer("catalog.images.thumbnails.duration");
+    }
+
+    public void scheduleThumbnails(String productId) {
+        try {
+            thumbnailExecutor.execute(() -> generateThumbnails(productId));
+        } catch (TaskRejectedException e) {
+            rejected.increment();
+            log.warn("Cola de miniaturas llena, se omite el producto {}", productId);
+        }
+    }
+
+    public void deleteThumbnails(String productId) {
+        variantRepository.deleteByProductId(productId);
+    }
+
+    void generateThumbnails(String productId) {
+        try {
+            resizeTimer.record(() -> doGenerate(productId));
+            completed.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.error("Error generando miniaturas del producto {}", productId, e);
+        }
+    }
+
+    private void doGenerate(String productId) {
+        Optional<ProductImage> imageOpt = productImageRepository.findById(productId);
+        if (imageOpt.isEmpty()) {
+            // Solo las que no son de la imagen vigente, por si se guardó una nueva mientras tanto
+            variantRepository.deleteOrphaned(productId);
+            return;
+        }
+
+        ProductImage image = imageOpt.get();
+        String sourceHash = image.getContentHash();
+        BufferedImage source = decode(image.getData());
+
+        List<ProductImageVariant> variants = new ArrayList<>();
+        if (source != null) {
+            boolean png = source.getColorModel().hasAlpha()
+                    || MediaType.IMAGE_PNG_VALUE.equals(image.getContentType())
+                    || MediaType.IMAGE_GIF_VALUE.equals(image.getContentType());
+            for (Integer width : widths) {
+                // Solo se reduce: si el original ya es más angosto se sirve tal cual
+                if (width >= source.getWidth()) {
+                    break;
+                }
+                byte[] data = encode(resize(source, width), png ? "png" : "jpg");
+                variants.add(ProductImageVariant.builder()
+                        .productId(productId)
+                        .width(width)
+                        .contentHash(ProductImageService.sha256(data))
+                        .sourceHash(sourceHash)
+                        .contentType(png ? MediaType.IMAGE_PNG_VALUE : MediaType.IMAGE_JPEG_VALUE)
+                        .contentLength((long) data.length)
+                        .data(data)
+                        .build());
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Optional<String> currentHash = productImageRepository.lockContentHash(productId);
+            if (currentHash.isEmpty() || !currentHash.get().equals(sourceHash)) {
+                log.debug("La imagen del producto {} cambió durante la generación, se descartan sus miniaturas", productId);
+                return;
+            }
+            variantRepository.saveAll(variants);
+            variantRepository.deleteStale(productId, sourceHash);
+            productImageRepository.markVariantsReady(productId, sourceHash);
+        });
+    }
+
+    private BufferedImage decode(byte[] data) {
+        try {
+            return ImageIO.read(new ByteArrayInputStream(data));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    static BufferedImage resize(BufferedImage source, int targetWidth) {
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height;
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        // Reducción por pasos a la mitad para evitar el aliasing de un único escalado bilineal grande
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+
+            BufferedImage step = new BufferedImage(width, height, type);
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, width, height, null);
+            g.dispose();
+            current = step;
+        } while (width != targetWidth);
+
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image, String format) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            if (!ImageIO.write(image, format, out)) {
+                throw new IllegalStateException("No hay codificador para el formato " + format);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo codificar la miniatura", e);
+        }
+    }
+}
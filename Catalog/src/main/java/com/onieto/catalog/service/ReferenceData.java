@@ -0,0 +1,129 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.model.Category;
+import com.onieto.catalog.model.Unit;
+import com.onieto.catalog.repository.CategoryRepository;
+import com.onieto.catalog.repository.UnitRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Copia inmutable en memoria de las categorías y unidades. Las lecturas nunca consultan la base:
+ * cada escritura de administración vuelve a cargar la tabla y reemplaza la copia completa de una vez,
+ * así un lector ve el estado anterior o el nuevo, nunca una mezcla.
+ * <p>
+ * Las entidades de la copia son compartidas y no deben modificarse.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReferenceData {
+
+    private final CategoryRepository categoryRepository;
+    private final UnitRepository unitRepository;
+
+    private final AtomicReference<Snapshot<Category>> categories = new AtomicReference<>();
+    private final AtomicReference<Snapshot<Unit>> units = new AtomicReference<>();
+
+    public List<Category> getCategories() {
+        return categorySnapshot().all();
+    }
+
+    public Optional<Category> findCategory(Long id) {
+        return Optional.ofNullable(categorySnapshot().byId().get(id));
+    }
+
+    public List<Unit> getUnits() {
+        return unitSnapshot().all();
+    }
+
+    public Optional<Unit> findUnit(Long id) {
+        return Optional.ofNullable(unitSnapshot().byId().get(id));
+    }
+
+    public Optional<Unit> findUnitByName(String name) {
+        return Optional.ofNullable(unitSnapshot().byName().get(name.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Vuelve a cargar las categorías; dentro de una transacción, después del commit.
+     */
+    public void reloadCategories() {
+        afterCommit(this::loadCategories);
+    }
+
+    public void reloadUnits() {
+        afterCommit(this::loadUnits);
+    }
+
+    // Red de seguridad para cambios hechos por otra instancia o directamente en la base
+    @Scheduled(fixedDelayString = "${catalog.reference-data.refresh-interval:5m}",
+            initialDelayString = "${catalog.reference-data.refresh-interval:5m}")
+    public void refresh() {
+        loadCategories();
+        loadUnits();
+    }
+
+    private Snapshot<Category> categorySnapshot() {
+        Snapshot<Category> snapshot = categories.get();
+        return snapshot != null ? snapshot : loadCategories();
+    }
+
+    private Snapshot<Unit> unitSnapshot() {
+        Snapshot<Unit> snapshot = units.get();
+        return snapshot != null ? snapshot : loadUnits();
+    }
+
+    private Snapshot<Category> loadCategories() {
+        List<Category> copies = categoryRepository.findAll().stream()
+                .map(c -> Category.builder().id(c.getId()).name(c.getName()).version(c.getVersion()).build())
+                .toList();
+        Snapshot<Category> snapshot = Snapshot.of(copies, Category::getId, Category::getName);
+        categories.set(snapshot);
+        return snapshot;
+    }
+
+    private Snapshot<Unit> loadUnits() {
+        List<Unit> copies = unitRepository.findAll().stream()
+                .map(u -> Unit.builder().id(u.getId()).name(u.getName()).version(u.getVersion()).build())
+                .toList();
+        Snapshot<Unit> snapshot = Snapshot.of(copies, Unit::getId, Unit::getName);
+        units.set(snapshot);
+        return snapshot;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Snapshot<T>(List<T> all, Map<Long, T> byId, Map<String, T> byName) {
+
+        static <T> Snapshot<T> of(List<T> items, Function<T, Long> id, Function<T, String> name) {
+            List<T> sorted = items.stream().sorted(Comparator.comparing(id)).toList();
+            return new Snapshot<>(sorted,
+                    sorted.stream().collect(Collectors.toUnmodifiableMap(id, Function.identity())),
+                    sorted.stream().collect(Collectors.toUnmodifiableMap(
+                            item -> name.apply(item).toLowerCase(Locale.ROOT), Function.identity(), (a, b) -> a)));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.dto.StockLineDto;
+import com.onieto.catalog.dto.StockOperationResult;
+import com.onieto.catalog.model.ProductChange;
+import com.onieto.catalog.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Reserva, liberación y confirmación de stock por lotes. Cada línea es un único UPDATE
+ * condicional, de modo que dos compras concurrentes nunca dejan el stock negativo y los
+ * bloqueos de fila duran lo que dura esa sentencia. Las líneas se aplican ordenadas por id
+ * para que dos lotes concurrentes no se bloqueen mutuamente.
+ *
+ * <ul>
+ *     <li>reservar: descuenta de {@code stock} y suma a {@code stockReservado}</li>
+ *     <li>liberar: devuelve lo reservado a {@code stock}</li>
+ *     <li>confirmar: descarta lo reservado, la venta queda hecha</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+public class StockService {
+
+    private static final String RETURNING = " returning id, nombre, stock, stock_reservado, stock_minimo, activo, categoria_id, unit_id";
+    private static final String UPDATE_GUARD_STOCK = "update products " +
+            "set stock = stock + ?, stock_reservado = stock_reservado + ?, version = version + 1 " +
+            "where id = ? and stock >= ?" + RETURNING;
+    private static final String UPDATE_GUARD_RESERVED = "update products " +
+            "set stock = stock + ?, stock_reservado = stock_reservado + ?, version = version + 1 " +
+            "where id = ? and stock_reservado >= ?" + RETURNING;
+
+    private static final RowMapper<StockRow> STOCK_ROW = (rs, rowNum) -> new StockRow(
+            rs.getString("id"),
+            rs.getString("nombre"),
+            rs.getInt("stock"),
+            rs.getInt("stock_reservado"),
+            rs.getInt("stock_minimo"),
+            rs.getInt("activo"),
+            rs.getLong("categoria_id"),
+            rs.getLong("unit_id"));
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductCache productCache;
+    private final ProductFacetCounter productFacetCounter;
+    private final LowStockWatchList lowStockWatchList;
+    private final ProductChangeLog productChangeLog;
+
+    private enum Operation {
+        RESERVE(-1, 1, UPDATE_GUARD_STOCK, StockOperationResult.Status.INSUFFICIENT_STOCK),
+        RELEASE(1, -1, UPDATE_GUARD_RESERVED, StockOperationResult.Status.INSUFFICIENT_RESERVED),
+        COMMIT(0, -1, UPDATE_GUARD_RESERVED, StockOperationResult.Status.INSUFFICIENT_RESERVED);
+
+        private final int stockSign;
+        private final int reservedSign;
+        private final String sql;
+        private final StockOperationResult.Status shortage;
+
+        Operation(int stockSign, int reservedSign, String sql, StockOperationResult.Status shortage) {
+            this.stockSign = stockSign;
+            this.reservedSign = reservedSign;
+            this.sql = sql;
+            this.shortage = shortage;
+        }
+    }
+
+    private record StockRow(String id, String nombre, int stock, int stockReservado, int stockMinimo,
+                            int activo, long categoriaId, long unitId) {
+    }
+
+    public StockOperationResult reserve(List<StockLineDto> items) {
+        return apply(Operation.RESERVE, items);
+    }
+
+    public StockOperationResult release(List<StockLineDto> items) {
+        return apply(Operation.RELEASE, items);
+    }
+
+    public StockOperationResult commit(List<StockLineDto> items) {
+        return apply(Operation.COMMIT, items);
+    }
+
+    private StockOperationResult apply(Operation operation, List<StockLineDto> items) {
+        // Las líneas repetidas de un mismo producto se suman en una sola
+        Map<String, Integer> quantities = new TreeMap<>();
+        items.forEach(item -> quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+
+        List<StockRow> updated = new ArrayList<>();
+        StockOperationResult result = transactionTemplate.execute(status -> {
+            List<StockOperationResult.Line> lines = new ArrayList<>();
+            boolean applied = true;
+            for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+                String productId = entry.getKey();
+                int quantity = entry.getValue();
+                List<StockRow> rows = jdbcTemplate.query(operation.sql, STOCK_ROW,
+                        operation.stockSign * quantity, operation.reservedSign * quantity, productId, quantity);
+                if (rows.isEmpty()) {
+                    applied = false;
+                    StockOperationResult.Status failure = productRepository.existsById(productId)
+                            ? operation.shortage
+                            : StockOperationResult.Status.NOT_FOUND;
+                    lines.add(new StockOperationResult.Line(productId, quantity, failure, null, null));
+                } else {
+                    StockRow row = rows.get(0);
+                    updated.add(row);
+                    lines.add(new StockOperationResult.Line(productId, quantity, StockOperationResult.Status.OK,
+                            row.stock(), row.stockReservado()));
+                }
+            }
+            if (!applied) {
+                status.setRollbackOnly();
+                lines = lines.stream()
+                        .map(line -> line.status() == StockOperationResult.Status.OK
+                                ? new StockOperationResult.Line(line.productId(), line.quantity(), line.status(), null, null)
+                                : line)
+                        .toList();
+            } else {
+                productChangeLog.recordAll(quantities.keySet(), ProductChange.Type.UPSERT);
+            }
+            return new StockOperationResult(applied, lines);
+        });
+
+        if (Objects.requireNonNull(result).applied()) {
+            updated.forEach(row -> afterStockChange(operation, row, quantities.get(row.id())));
+        }
+        return result;
+    }
+
+    private void afterStockChange(Operation operation, StockRow row, int quantity) {
+        productCache.evict(row.id());
+        int previousStock = row.stock() - operation.stockSign * quantity;
+        productFacetCounter.move(
+                new ProductFacetCounter.Key(row.categoriaId(), row.unitId(), row.activo() == 1 && previousStock > 0),
+                new ProductFacetCounter.Key(row.categoriaId(), row.unitId(), row.activo() == 1 && row.stock() > 0));
+        lowStockWatchList.update(row.id(), row.nombre(), row.stock(), row.stockMinimo());
+    }
+}
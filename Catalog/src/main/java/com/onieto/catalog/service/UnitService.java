@@ -6,6 +6,7 @@ import com.onieto.catalog.repository.ProductRepository;
 import com.onieto.catalog.repository.UnitRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,19 +17,23 @@ public class UnitService {
 
     private final UnitRepository unitRepository;
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ProductChangeLog productChangeLog;
+    private final CatalogVersions catalogVersions;
+    private final ReferenceData referenceData;
 
     public Unit getUnitById(Long id) {
-        return unitRepository.findById(id)
+        return referenceData.findUnit(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Unidad no encontrada: " + id));
     }
 
     public Unit getUnitByName(String name) {
-        return unitRepository.findByNameIgnoreCase(name)
+        return referenceData.findUnitByName(name)
                 .orElseThrow(() -> new ResourceNotFoundException("Unidad no encontrada: " + name));
     }
 
     public List<Unit> getAllUnits() {
-        return unitRepository.findAll();
+        return referenceData.getUnits();
     }
 
     public boolean validateUnitByName(String name) {
@@ -42,14 +47,28 @@ public class UnitService {
     public void createUnit(Unit unit) {
         validateUnitByName(unit.getName());
         unitRepository.save(unit);
+        catalogVersions.touch(CatalogVersions.Table.UNITS);
+        referenceData.reloadUnits();
     }
 
-    public void updateUnit(Long id, Unit updatedUnit) {
+    @Transactional
+    public Unit updateUnit(Long id, Unit updatedUnit) {
+        return updateUnit(id, updatedUnit, null);
+    }
+
+    @Transactional
+    public Unit updateUnit(Long id, Unit updatedUnit, String ifMatch) {
         Unit existingUnit = unitRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Unidad no encontrada: " + id));
+        EntityVersions.checkIfMatch(ifMatch, existingUnit.getVersion(), "La unidad fue modificada por otra solicitud: " + id);
         validateUnitByName(updatedUnit.getName());
         existingUnit.setName(updatedUnit.getName());
-        unitRepository.save(existingUnit);
+        Unit saved = unitRepository.saveAndFlush(existingUnit);
+        catalogVersions.touch(CatalogVersions.Table.UNITS);
+        referenceData.reloadUnits();
+        productChangeLog.recordUnit(id);
+        productCache.evictAll();
+        return saved;
     }
 
     public void deleteUnit(Long id) {
@@ -58,5 +77,7 @@ public class UnitService {
             throw new IllegalStateException("No se puede eliminar la unidad porque hay productos asociados.");
         }
         unitRepository.deleteById(id);
+        catalogVersions.touch(CatalogVersions.Table.UNITS);
+        referenceData.reloadUnits();
     }
 }
@@ -18,3 +18,15 @@ INSERT INTO units (name) VALUES ('units') ON CONFLICT (name) DO NOTHING;
 -- LOS PRODUCTOS SE CARGAN AUTOMÁTICAMENTE
 -- mediante DatabaseInitializer.java
 -- ============================================
+
+-- ============================================
+-- BÚSQUEDA DE TEXTO COMPLETO (Idempotente)
+-- Columna tsvector generada por PostgreSQL a partir de nombre (peso A) y
+-- descripcion (peso B) con stemming en español, indexada con GIN
+-- ============================================
+ALTER TABLE products ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('spanish', coalesce(nombre, '')), 'A') ||
+        setweight(to_tsvector('spanish', coalesce(descripcion, '')), 'B')
+    ) STORED;
+CREATE INDEX IF NOT EXISTS idx_products_search_vector ON products USING GIN (search_vector);
@@ -0,0 +1,160 @@
+package com.onieto.catalog.config;
+
+import com.onieto.catalog.model.Category;
+import com.onieto.catalog.model.SeedManifest;
+import com.onieto.catalog.model.Unit;
+import com.onieto.catalog.repository.CategoryRepository;
+import com.onieto.catalog.repository.ProductRepository;
+import com.onieto.catalog.repository.SeedManifestRepository;
+import com.onieto.catalog.repository.UnitRepository;
+import com.onieto.catalog.service.ProductChangeLog;
+import com.onieto.catalog.service.ProductImageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DatabaseInitializerTest {
+
+    private static final int SEED_COUNT = 9;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private UnitRepository unitRepository;
+
+    @Mock
+    private SeedManifestRepository seedManifestRepository;
+
+    @Mock
+    private ProductImageService productImageService;
+
+    @Mock
+    private ProductChangeLog productChangeLog;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private DatabaseInitializer initializer;
+
+    @BeforeEach
+    void setUp() {
+        initializer = new DatabaseInitializer(productRepository, categoryRepository, unitRepository,
+                seedManifestRepository, productImageService, productChangeLog, jdbcTemplate, transactionTemplate);
+        lenient().when(productRepository.findExistingIds(any())).thenReturn(Set.of());
+        lenient().when(productImageService.findProductIdsWithImage(any())).thenReturn(Set.of());
+        lenient().when(categoryRepository.findAll()).thenReturn(categories("frutas", "verduras", "organicos", "lacteos"));
+        lenient().when(unitRepository.findAll()).thenReturn(List.of(
+                Unit.builder().id(1L).name("kg").build(),
+                Unit.builder().id(2L).name("500g").build(),
+                Unit.builder().id(3L).name("L").build()));
+        lenient().doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void run_WithUnchangedChecksum_ShouldSkipTheSeed() throws Exception {
+        initializer.run();
+        SeedManifest applied = savedManifest();
+        clearInvocations(productRepository, jdbcTemplate, productImageService, seedManifestRepository);
+        when(seedManifestRepository.findById("products")).thenReturn(Optional.of(applied));
+
+        initializer.run();
+
+        verifyNoInteractions(productRepository, jdbcTemplate, productImageService);
+        verify(seedManifestRepository, never()).save(any());
+    }
+
+    @Test
+    void run_WithChangedChecksum_ShouldSeedAgainAndRecordTheNewChecksum() throws Exception {
+        when(seedManifestRepository.findById("products"))
+                .thenReturn(Optional.of(new SeedManifest("products", "anterior", LocalDateTime.now())));
+
+        initializer.run();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), inserts.capture());
+        assertEquals(SEED_COUNT, inserts.getValue().size());
+        verify(productImageService, times(SEED_COUNT)).saveImage(anyString(), any());
+        assertNotEquals("anterior", savedManifest().getChecksum());
+    }
+
+    @Test
+    void run_AfterPartialFailure_ShouldNotRecordChecksumAndRetryTheRestNextTime() throws Exception {
+        // Sin la categoría lácteos, la leche no se puede insertar
+        when(categoryRepository.findAll()).thenReturn(categories("frutas", "verduras", "organicos"));
+
+        initializer.run();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+        verify(seedManifestRepository, never()).save(any());
+
+        clearInvocations(jdbcTemplate, productImageService);
+        when(categoryRepository.findAll()).thenReturn(categories("frutas", "verduras", "organicos", "lacteos"));
+        Set<String> seeded = Set.of("FR001", "FR002", "FR003", "VR001", "VR002", "VR003", "PO001", "PO003");
+        when(productRepository.findExistingIds(any())).thenReturn(seeded);
+        when(productImageService.findProductIdsWithImage(any())).thenReturn(seeded);
+
+        initializer.run();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), inserts.capture());
+        assertEquals(1, inserts.getValue().size());
+        assertEquals("PL001", inserts.getValue().get(0)[0]);
+        verify(productImageService).saveImage(eq("PL001"), any());
+        savedManifest();
+    }
+
+    private SeedManifest savedManifest() {
+        ArgumentCaptor<SeedManifest> captor = ArgumentCaptor.forClass(SeedManifest.class);
+        verify(seedManifestRepository).save(captor.capture());
+        return captor.getValue();
+    }
+
+    private List<Category> categories(String... names) {
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            categories.add(Category.builder().id((long) i + 1).name(names[i]).build());
+        }
+        return categories;
+    }
+}
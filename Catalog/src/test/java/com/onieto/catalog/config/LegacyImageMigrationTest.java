@@ -0,0 +1,94 @@
+package com.onieto.catalog.config;
+
+import com.onieto.catalog.model.Category;
+import com.onieto.catalog.model.Product;
+import com.onieto.catalog.model.ProductImage;
+import com.onieto.catalog.model.Unit;
+import com.onieto.catalog.repository.CategoryRepository;
+import com.onieto.catalog.repository.ProductImageRepository;
+import com.onieto.catalog.repository.ProductRepository;
+import com.onieto.catalog.repository.UnitRepository;
+import com.onieto.catalog.service.ProductImageService;
+import com.onieto.catalog.service.ProductThumbnailService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifica contra una base real (H2) que las imágenes de la columna products.imagen pasan a
+ * product_images con su hash y que una imagen ya subida a la tabla nueva no se pisa.
+ */
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+@Import({LegacyImageMigration.class, ProductImageService.class})
+class LegacyImageMigrationTest {
+
+    private static final byte[] LEGACY = {1, 2, 3, 4};
+
+    @Autowired
+    private LegacyImageMigration migration;
+
+    @Autowired
+    private ProductImageService productImageService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductImageRepository productImageRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private ProductThumbnailService thumbnailService;
+
+    @BeforeEach
+    void setUp() {
+        // La columna ya no está mapeada; se agrega antes de escribir porque el DDL confirma la transacción
+        jdbcTemplate.execute("alter table products add column if not exists imagen blob");
+        Category category = categoryRepository.save(new Category("frutas"));
+        Unit unit = unitRepository.save(new Unit("kg"));
+        for (String id : new String[]{"FR001", "FR002"}) {
+            productRepository.save(Product.builder()
+                    .id(id)
+                    .nombre("Manzana")
+                    .descripcion("Manzana roja de temporada, por kilo")
+                    .precio(1200)
+                    .stock(10)
+                    .stockMinimo(2)
+                    .activo(1)
+                    .categoria(category)
+                    .unid(unit)
+                    .build());
+        }
+        productRepository.flush();
+        jdbcTemplate.update("update products set imagen = ?", (Object) LEGACY);
+    }
+
+    @Test
+    void run_ShouldCopyLegacyBytesWithHashAndClearTheColumn() {
+        byte[] uploaded = {9, 9};
+        productImageService.saveImage("FR002", uploaded);
+
+        migration.run();
+
+        ProductImage migrated = productImageRepository.findById("FR001").orElseThrow();
+        assertArrayEquals(LEGACY, migrated.getData());
+        assertEquals(ProductImageService.sha256(LEGACY), migrated.getContentHash());
+        assertEquals(ProductImageService.sha256(uploaded), productImageRepository.findContentHashByProductId("FR002").orElseThrow());
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from products where imagen is not null", Integer.class));
+    }
+}
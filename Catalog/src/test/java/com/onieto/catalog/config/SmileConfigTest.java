@@ -0,0 +1,37 @@
+package com.onieto.catalog.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onieto.catalog.dto.ProductSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SmileConfigTest {
+
+    @Test
+    void smileConverter_ShouldRoundTripImageAsRawBinaryAndBeSmallerThanJson() throws Exception {
+        byte[] imagen = new byte[32 * 1024];
+        new Random(42).nextBytes(imagen);
+        ProductSnapshot product = new ProductSnapshot("FR001", "Manzana", "Manzana roja", 1200, 50, 5, 1,
+                new ProductSnapshot.Ref(1L, "Frutas"), new ProductSnapshot.Ref(2L, "kg"), null, 3L, imagen, null);
+
+        MappingJackson2SmileHttpMessageConverter converter =
+                new SmileConfig().smileHttpMessageConverter(new Jackson2ObjectMapperBuilder());
+        ObjectMapper smile = converter.getObjectMapper();
+        byte[] smileBytes = smile.writeValueAsBytes(product);
+        byte[] jsonBytes = new ObjectMapper().writeValueAsBytes(product);
+
+        ProductSnapshot decoded = smile.readValue(smileBytes, ProductSnapshot.class);
+        assertEquals(product.nombre(), decoded.nombre());
+        assertArrayEquals(imagen, decoded.imagen());
+        // Base64 agrega un tercio; el binario crudo de Smile solo unos bytes de encabezado
+        assertTrue(smileBytes.length < imagen.length + 200, "Smile: " + smileBytes.length);
+        assertTrue(jsonBytes.length > imagen.length * 4 / 3, "JSON: " + jsonBytes.length);
+    }
+}
@@ -0,0 +1,59 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.exception.PreconditionFailedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogVersionsTest {
+
+    private final CatalogVersions versions = new CatalogVersions();
+
+    @Test
+    void touch_ShouldChangeOnlyTheEtagsThatIncludeTheTable() {
+        String products = versions.etag(CatalogVersions.Table.PRODUCTS);
+        String categories = versions.etag(CatalogVersions.Table.CATEGORIES);
+        String list = versions.etag(CatalogVersions.Table.PRODUCTS, CatalogVersions.Table.CATEGORIES);
+
+        versions.touch(CatalogVersions.Table.CATEGORIES);
+
+        assertTrue(products.startsWith("W/\""));
+        assertEquals(products, versions.etag(CatalogVersions.Table.PRODUCTS));
+        assertNotEquals(categories, versions.etag(CatalogVersions.Table.CATEGORIES));
+        assertNotEquals(list, versions.etag(CatalogVersions.Table.PRODUCTS, CatalogVersions.Table.CATEGORIES));
+    }
+
+    @Test
+    void entityEtag_ShouldChangeWithReferenceTablesAndStillMatchTheVersion() {
+        String before = versions.etag(7L, CatalogVersions.Table.CATEGORIES, CatalogVersions.Table.UNITS);
+
+        versions.touch(CatalogVersions.Table.CATEGORIES);
+        String after = versions.etag(7L, CatalogVersions.Table.CATEGORIES, CatalogVersions.Table.UNITS);
+
+        assertTrue(after.startsWith("W/\"7-"));
+        assertNotEquals(before, after);
+        assertDoesNotThrow(() -> EntityVersions.checkIfMatch(after, 7L, "modificado"));
+        assertThrows(PreconditionFailedException.class, () -> EntityVersions.checkIfMatch(after, 8L, "modificado"));
+    }
+
+    @Test
+    void touch_InsideTransaction_ShouldWaitForCommit() {
+        String before = versions.etag(CatalogVersions.Table.UNITS);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            versions.touch(CatalogVersions.Table.UNITS);
+            assertEquals(before, versions.etag(CatalogVersions.Table.UNITS));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertNotEquals(before, versions.etag(CatalogVersions.Table.UNITS));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
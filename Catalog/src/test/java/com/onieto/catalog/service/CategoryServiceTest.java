@@ -26,6 +26,18 @@ class CategoryServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ProductChangeLog productChangeLog;
+
+    @Mock
+    private CatalogVersions catalogVersions;
+
+    @Mock
+    private ReferenceData referenceData;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -52,7 +64,11 @@ class CategoryServiceTest {
         categoryService.updateCategory(id, updated);
 
         assertEquals("Hogar", existing.getName());
-        verify(categoryRepository).save(existing);
+        verify(categoryRepository).saveAndFlush(existing);
+        verify(productCache).evictAll();
+        verify(productChangeLog).recordCategory(id);
+        verify(catalogVersions).touch(CatalogVersions.Table.CATEGORIES);
+        verify(referenceData).reloadCategories();
     }
 
     @Test
@@ -60,11 +76,12 @@ class CategoryServiceTest {
         Long id = 3L;
         Category category = Category.builder().id(id).name("Oficina").build();
 
-        when(categoryRepository.findById(id)).thenReturn(Optional.of(category));
+        when(referenceData.findCategory(id)).thenReturn(Optional.of(category));
         when(productRepository.existsProductsByCategoriaId(id)).thenReturn(false);
 
         categoryService.deleteCategory(id);
 
         verify(categoryRepository).deleteById(id);
+        verify(referenceData).reloadCategories();
     }
 }
@@ -0,0 +1,147 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.config.LowStockConfig;
+import com.onieto.catalog.dto.LowStockChange;
+import com.onieto.catalog.dto.ProductDto;
+import com.onieto.catalog.model.Category;
+import com.onieto.catalog.model.Unit;
+import com.onieto.catalog.repository.CategoryRepository;
+import com.onieto.catalog.repository.ProductRepository;
+import com.onieto.catalog.repository.UnitRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+/**
+ * Recorre create, update y delete de productos con transacciones reales (confirmadas) y verifica que
+ * un suscriptor del stream de stock bajo recibe cada cambio.
+ */
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ProductService.class, CategoryService.class, UnitService.class, LowStockWatchList.class,
+        LowStockEventsJpaTest.Config.class})
+class LowStockEventsJpaTest {
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean(name = LowStockConfig.LOW_STOCK_EXECUTOR)
+        TaskExecutor lowStockExecutor() {
+            return new SyncTaskExecutor();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private LowStockWatchList lowStockWatchList;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    @MockitoBean
+    private ProductImageService productImageService;
+
+    @MockitoBean
+    private ProductCache productCache;
+
+    @MockitoBean
+    private ProductSuggestIndex productSuggestIndex;
+
+    @MockitoBean
+    private ProductFacetCounter productFacetCounter;
+
+    @MockitoBean
+    private ProductChangeLog productChangeLog;
+
+    @MockitoBean
+    private CatalogVersions catalogVersions;
+
+    @MockitoBean
+    private ReferenceData referenceData;
+
+    private final List<LowStockChange> received = new CopyOnWriteArrayList<>();
+    private Category category;
+    private Unit unit;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category("frutas"));
+        unit = unitRepository.save(new Unit("kg"));
+        when(referenceData.findCategory(category.getId())).thenReturn(Optional.of(category));
+        when(referenceData.findUnit(unit.getId())).thenReturn(Optional.of(unit));
+
+        lowStockWatchList.subscribe(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                builder.build().stream()
+                        .filter(part -> part.getData() instanceof LowStockChange)
+                        .forEach(part -> received.add((LowStockChange) part.getData()));
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        unitRepository.deleteAll();
+    }
+
+    @Test
+    void productWrites_ShouldNotifySubscribersAfterCommit() {
+        productService.createProduct(productDto(1));
+        productService.updateProduct("FR001", productDto(3));
+        productService.deleteProduct("FR001");
+
+        assertEquals(List.of(LowStockChange.Type.ENTERED, LowStockChange.Type.UPDATED, LowStockChange.Type.LEFT),
+                received.stream().map(LowStockChange::type).toList());
+        assertEquals(Integer.valueOf(3), received.get(1).item().stock());
+    }
+
+    private ProductDto productDto(int stock) {
+        ProductDto dto = new ProductDto();
+        dto.setId("FR001");
+        dto.setNombre("Manzana");
+        dto.setDescripcion("Manzana roja de temporada, por kilo");
+        dto.setCategoriaId(category.getId());
+        dto.setUnidadId(unit.getId());
+        dto.setPrecio(1200);
+        dto.setStock(stock);
+        dto.setStockMinimo(5);
+        dto.setActivo(1);
+        return dto;
+    }
+}
@@ -0,0 +1,93 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.dto.LowStockItem;
+import com.onieto.catalog.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LowStockWatchListTest {
+
+    private final List<Runnable> dispatched = new ArrayList<>();
+    private ProductRepository productRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private LowStockWatchList watchList;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        when(productRepository.findLowStock()).thenReturn(List.of(
+                new LowStockItem("VE002", "Zanahoria", 1, 5),
+                new LowStockItem("FR001", "Manzana", 5, 5)));
+        meterRegistry = new SimpleMeterRegistry();
+        // Los envíos quedan retenidos en la lista: simula un pool que todavía no los ejecutó
+        watchList = new LowStockWatchList(productRepository, dispatched::add, Duration.ofMinutes(1), 2, meterRegistry);
+        watchList.rebuild();
+    }
+
+    @Test
+    void rebuild_ShouldLoadItemsSortedById() {
+        assertEquals(List.of("FR001", "VE002"), watchList.getItems().stream().map(LowStockItem::id).toList());
+        assertEquals(2.0, meterRegistry.get("catalog.products.low_stock").gauge().value());
+    }
+
+    @Test
+    void update_ShouldAddRefreshAndRemoveItems() {
+        watchList.update("LA003", "Leche", 2, 10);
+        watchList.update("FR001", "Manzana", 3, 5);
+        watchList.update("VE002", "Zanahoria", 20, 5);
+
+        assertEquals(List.of(new LowStockItem("FR001", "Manzana", 3, 5), new LowStockItem("LA003", "Leche", 2, 10)),
+                watchList.getItems());
+    }
+
+    @Test
+    void remove_ShouldDropItem() {
+        watchList.remove("FR001");
+        watchList.remove("XX999");
+
+        assertEquals(List.of("VE002"), watchList.getItems().stream().map(LowStockItem::id).toList());
+    }
+
+    @Test
+    void subscribe_ShouldRegisterSubscriber() {
+        watchList.subscribe();
+
+        assertEquals(1.0, meterRegistry.get("catalog.products.low_stock.subscribers").gauge().value());
+    }
+
+    @Test
+    void update_WithLaggingSubscriber_ShouldDisconnectIt() {
+        watchList.subscribe();
+
+        watchList.update("LA003", "Leche", 2, 10);
+        watchList.update("LA003", "Leche", 1, 10);
+        watchList.update("LA003", "Leche", 0, 10);
+
+        // Un solo envío en vuelo por suscriptor; el tercer evento supera el máximo pendiente
+        assertEquals(1, dispatched.size());
+        assertEquals(0.0, meterRegistry.get("catalog.products.low_stock.subscribers").gauge().value());
+        assertEquals(1.0, meterRegistry.get("catalog.products.low_stock.subscribers.dropped").counter().count());
+    }
+
+    @Test
+    void update_WhenDispatcherIsFull_ShouldDisconnectSubscriber() {
+        LowStockWatchList saturated = new LowStockWatchList(productRepository, task -> {
+            throw new TaskRejectedException("cola llena");
+        }, Duration.ofMinutes(1), 2, meterRegistry);
+        saturated.subscribe();
+
+        saturated.update("LA003", "Leche", 2, 10);
+
+        assertEquals(1.0, meterRegistry.get("catalog.products.low_stock.subscribers.dropped").counter().count());
+    }
+}
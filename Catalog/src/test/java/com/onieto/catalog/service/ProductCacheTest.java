@@ -0,0 +1,78 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.dto.ProductSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ProductCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductCache productCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productCache = new ProductCache(100, Duration.ofMinutes(5), meterRegistry);
+    }
+
+    @Test
+    void get_ShouldLoadOnceAndServeHitsFromMemory() {
+        AtomicInteger loads = new AtomicInteger();
+        ProductSnapshot snapshot = snapshot("SKU-1");
+
+        ProductSnapshot first = productCache.get("SKU-1", id -> {
+            loads.incrementAndGet();
+            return snapshot;
+        });
+        ProductSnapshot second = productCache.get("SKU-1", id -> {
+            loads.incrementAndGet();
+            return snapshot;
+        });
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void evict_ShouldForceReload() {
+        AtomicInteger loads = new AtomicInteger();
+
+        productCache.get("SKU-1", id -> snapshotCounting(loads));
+        productCache.evict("SKU-1");
+        productCache.get("SKU-1", id -> snapshotCounting(loads));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void putAll_AfterEvictSinceStamp_ShouldNotKeepTheLoadedSnapshot() {
+        long stamp = productCache.stamp();
+        productCache.putAll(Map.of("SKU-2", snapshot("SKU-2")), stamp);
+        long staleStamp = productCache.stamp();
+        productCache.evict("SKU-1");
+        productCache.putAll(Map.of("SKU-1", snapshot("SKU-1")), staleStamp);
+
+        assertEquals(Map.of("SKU-2", snapshot("SKU-2")), productCache.getAllPresent(List.of("SKU-1", "SKU-2")));
+    }
+
+    private ProductSnapshot snapshotCounting(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return snapshot("SKU-1");
+    }
+
+    private ProductSnapshot snapshot(String id) {
+        return new ProductSnapshot(id, "Laptop", "Descripcion", 100, 5, 1, 1,
+                new ProductSnapshot.Ref(1L, "Tech"), new ProductSnapshot.Ref(2L, "Unidad"), null, 0L, null, null);
+    }
+}
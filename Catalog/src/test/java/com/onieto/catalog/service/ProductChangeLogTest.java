@@ -0,0 +1,115 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.dto.ProductChangeEvent;
+import com.onieto.catalog.dto.ProductChangePage;
+import com.onieto.catalog.model.Category;
+import com.onieto.catalog.model.Product;
+import com.onieto.catalog.model.ProductChange;
+import com.onieto.catalog.model.Unit;
+import com.onieto.catalog.repository.ProductChangeRepository;
+import com.onieto.catalog.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductChangeLogTest {
+
+    @Mock
+    private ProductChangeRepository productChangeRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private CatalogVersions catalogVersions;
+
+    private ProductChangeLog changeLog;
+
+    @BeforeEach
+    void setUp() {
+        changeLog = new ProductChangeLog(productChangeRepository, productRepository, jdbcTemplate,
+                transactionTemplate, catalogVersions, Duration.ofDays(7), Duration.ofDays(30));
+    }
+
+    @Test
+    void getChanges_ShouldReturnCurrentStateAndTombstonesInOrder() {
+        LocalDateTime now = LocalDateTime.now();
+        when(productChangeRepository.findBySeqGreaterThanOrderBySeqAsc(10L, Limit.of(3))).thenReturn(List.of(
+                change(11L, "FR001", ProductChange.Type.UPSERT, now),
+                change(12L, "VE002", ProductChange.Type.UPSERT, now),
+                change(13L, "FR001", ProductChange.Type.UPSERT, now)));
+        when(productRepository.findAllWithReferencesByIdIn(List.of("FR001", "VE002"))).thenReturn(List.of(
+                Product.builder().id("FR001").nombre("Manzana").stock(5)
+                        .categoria(Category.builder().id(1L).name("Frutas").build())
+                        .unid(Unit.builder().id(2L).name("kg").build())
+                        .version(3L).build()));
+
+        ProductChangePage page = changeLog.getChanges(10L, 2);
+
+        assertTrue(page.hasMore());
+        assertEquals(12L, page.next());
+        assertEquals(List.of(11L, 12L), page.changes().stream().map(ProductChangeEvent::seq).toList());
+        assertEquals("Manzana", page.changes().get(0).product().nombre());
+        // VE002 fue eliminado después de registrar su alta: se publica como baja
+        assertEquals(ProductChange.Type.DELETE, page.changes().get(1).type());
+        assertNull(page.changes().get(1).product());
+    }
+
+    @Test
+    void getChanges_WhenUpToDate_ShouldKeepSince() {
+        when(productChangeRepository.findBySeqGreaterThanOrderBySeqAsc(5L, Limit.of(101))).thenReturn(List.of());
+
+        ProductChangePage page = changeLog.getChanges(5L, 100);
+
+        assertFalse(page.hasMore());
+        assertEquals(5L, page.next());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getChanges_WithInvalidParameters_ShouldFail() {
+        assertThrows(IllegalArgumentException.class, () -> changeLog.getChanges(-1L, 10));
+        assertThrows(IllegalArgumentException.class, () -> changeLog.getChanges(0L, ProductChangeLog.MAX_CHANGES_LIMIT + 1));
+    }
+
+    @Test
+    void recordCategory_ShouldAppendOneChangePerProductOfTheCategory() {
+        changeLog.recordCategory(4L);
+
+        verify(jdbcTemplate).update(anyString(), any(Timestamp.class), eq(4L));
+        verify(catalogVersions).touch(CatalogVersions.Table.PRODUCTS);
+    }
+
+    private ProductChange change(Long seq, String productId, ProductChange.Type type, LocalDateTime changedAt) {
+        return ProductChange.builder().seq(seq).productId(productId).type(type).changedAt(changedAt).build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductFacetCounterTest {
+
+    private ProductFacetCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.countFacets()).thenReturn(List.of(
+                new Object[]{1L, 10L, true, 3L},
+                new Object[]{1L, 10L, false, 2L},
+                new Object[]{2L, 20L, true, 1L}));
+        counter = new ProductFacetCounter(productRepository);
+        counter.rebuild();
+    }
+
+    @Test
+    void rebuild_ShouldLoadTotalsAndAvailableCounts() {
+        assertEquals(Map.of(1L, 5L, 2L, 1L), counter.countByCategory(false));
+        assertEquals(Map.of(1L, 3L, 2L, 1L), counter.countByCategory(true));
+        assertEquals(Map.of(10L, 5L, 20L, 1L), counter.countByUnit(false));
+    }
+
+    @Test
+    void writes_ShouldAdjustCountsIncrementally() {
+        counter.add(new ProductFacetCounter.Key(3L, 10L, true));
+        counter.move(new ProductFacetCounter.Key(1L, 10L, true), new ProductFacetCounter.Key(1L, 10L, false));
+        counter.remove(new ProductFacetCounter.Key(2L, 20L, true));
+
+        assertEquals(Map.of(1L, 5L, 3L, 1L), counter.countByCategory(false));
+        assertEquals(Map.of(1L, 2L, 3L, 1L), counter.countByCategory(true));
+        assertEquals(Map.of(10L, 6L), counter.countByUnit(false));
+    }
+}
@@ -0,0 +1,229 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.dto.ProductImageMetadata;
+import com.onieto.catalog.exception.ResourceNotFoundException;
+import com.onieto.catalog.model.ProductImage;
+import com.onieto.catalog.model.ProductImageBlob;
+import com.onieto.catalog.repository.ProductImageBlobRepository;
+import com.onieto.catalog.repository.ProductImageRepository;
+import com.onieto.catalog.repository.ProductImageVariantRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImageServiceTest {
+
+    @Mock
+    private ProductImageRepository productImageRepository;
+
+    @Mock
+    private ProductImageBlobRepository blobRepository;
+
+    @Mock
+    private ProductImageVariantRepository variantRepository;
+
+    @Mock
+    private ProductThumbnailService thumbnailService;
+
+    @InjectMocks
+    private ProductImageService productImageService;
+
+    @Test
+    void saveImage_WithNewContent_ShouldPersistHashAndSize() {
+        byte[] data = {1, 2, 3, 4};
+        when(productImageRepository.findContentHashByProductId("SKU-1")).thenReturn(Optional.empty());
+
+        productImageService.saveImage("SKU-1", data);
+
+        ArgumentCaptor<ProductImage> captor = ArgumentCaptor.forClass(ProductImage.class);
+        verify(productImageRepository).save(captor.capture());
+        ProductImage saved = captor.getValue();
+        assertEquals("SKU-1", saved.getProductId());
+        assertEquals(ProductImageService.sha256(data), saved.getContentHash());
+        assertEquals(4L, saved.getContentLength());
+        assertArrayEquals(data, saved.getData());
+        ArgumentCaptor<ProductImageBlob> blob = ArgumentCaptor.forClass(ProductImageBlob.class);
+        verify(blobRepository).save(blob.capture());
+        assertEquals(saved.getContentHash(), blob.getValue().getContentHash());
+        verify(thumbnailService).scheduleThumbnails("SKU-1");
+    }
+
+    @Test
+    void saveImage_ReplacingLegacyImage_ShouldArchiveItBeforeOverwriting() {
+        ProductImage legacy = ProductImage.builder().productId("SKU-1").contentHash("old999")
+                .contentType("image/png").contentLength(2L).data(new byte[]{7, 7}).build();
+        when(productImageRepository.findContentHashByProductId("SKU-1")).thenReturn(Optional.of("old999"));
+        when(productImageRepository.findById("SKU-1")).thenReturn(Optional.of(legacy));
+
+        productImageService.saveImage("SKU-1", new byte[]{1, 2, 3});
+
+        ArgumentCaptor<ProductImageBlob> blobs = ArgumentCaptor.forClass(ProductImageBlob.class);
+        verify(blobRepository, times(2)).save(blobs.capture());
+        assertEquals("old999", blobs.getAllValues().get(0).getContentHash());
+        assertEquals(ProductImageService.sha256(new byte[]{1, 2, 3}), blobs.getAllValues().get(1).getContentHash());
+    }
+
+    @Test
+    void saveImage_InsideTransaction_ShouldScheduleThumbnailsOnlyAfterCommit() {
+        when(productImageRepository.findContentHashByProductId("SKU-1")).thenReturn(Optional.empty());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            productImageService.saveImage("SKU-1", new byte[]{1, 2, 3});
+
+            verifyNoInteractions(thumbnailService);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(thumbnailService).scheduleThumbnails("SKU-1");
+    }
+
+    @Test
+    void saveImage_WithUnchangedContent_ShouldSkipWrite() {
+        byte[] data = {9, 8, 7};
+        when(productImageRepository.findContentHashByProductId("SKU-1"))
+                .thenReturn(Optional.of(ProductImageService.sha256(data)));
+
+        productImageService.saveImage("SKU-1", data);
+
+        verify(productImageRepository, never()).save(any(ProductImage.class));
+        verify(thumbnailService, never()).scheduleThumbnails("SKU-1");
+    }
+
+    @Test
+    void saveImage_WithNullContent_ShouldDeleteExistingImage() {
+        when(productImageRepository.findContentHashByProductId("SKU-1")).thenReturn(Optional.of("abc123"));
+        when(blobRepository.existsById("abc123")).thenReturn(true);
+
+        productImageService.saveImage("SKU-1", null);
+
+        verify(productImageRepository).deleteById("SKU-1");
+        verify(thumbnailService).deleteThumbnails("SKU-1");
+        verify(productImageRepository, never()).save(any(ProductImage.class));
+    }
+
+    @Test
+    void buildImageResponse_WhenEtagMatches_ShouldReturnNotModifiedWithoutBody() {
+        when(productImageRepository.findMetadataByProductId("SKU-1"))
+                .thenReturn(Optional.of(original(1000L)));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch("\"abc123\"");
+
+        ResponseEntity<StreamingResponseBody> response = productImageService.buildImageResponse("SKU-1", null, headers, null);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"abc123\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void buildImageResponse_WithSingleRange_ShouldReturnPartialContent() {
+        when(productImageRepository.findMetadataByProductId("SKU-1"))
+                .thenReturn(Optional.of(original(1000L)));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RANGE, "bytes=100-199");
+
+        ResponseEntity<StreamingResponseBody> response = productImageService.buildImageResponse("SKU-1", null, headers, "abc123");
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("bytes 100-199/1000", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals(100L, response.getHeaders().getContentLength());
+        assertEquals("max-age=31536000, public, immutable", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void buildImageResponse_WithRangeBeyondLength_ShouldReturnNotSatisfiable() {
+        when(productImageRepository.findMetadataByProductId("SKU-1"))
+                .thenReturn(Optional.of(original(1000L)));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RANGE, "bytes=5000-6000");
+
+        ResponseEntity<StreamingResponseBody> response = productImageService.buildImageResponse("SKU-1", null, headers, null);
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        assertEquals("bytes */1000", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void buildImageResponse_WithSize_ShouldServeSmallestMatchingVariant() {
+        ProductImageMetadata variant = new ProductImageMetadata("SKU-1", 320, "thumb320", "abc123", "image/jpeg", 4000L, true);
+        when(variantRepository.findCurrentMetadata("SKU-1", 200)).thenReturn(List.of(variant));
+
+        ResponseEntity<StreamingResponseBody> response =
+                productImageService.buildImageResponse("SKU-1", 200, new HttpHeaders(), "abc123");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"thumb320\"", response.getHeaders().getETag());
+        assertEquals(4000L, response.getHeaders().getContentLength());
+        assertEquals("max-age=31536000, public, immutable", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void buildImageResponse_WithSizeAndPendingVariants_ShouldServeOriginalWithoutCaching() {
+        when(variantRepository.findCurrentMetadata("SKU-1", 96)).thenReturn(List.of());
+        when(productImageRepository.findMetadataByProductId("SKU-1")).thenReturn(Optional.of(original(1000L)));
+
+        ResponseEntity<StreamingResponseBody> response =
+                productImageService.buildImageResponse("SKU-1", 96, new HttpHeaders(), "abc123");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1000L, response.getHeaders().getContentLength());
+        assertEquals("no-cache", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void buildImageResponse_WithSupersededVersion_ShouldServeArchivedOriginal() {
+        when(variantRepository.findCurrentMetadata("SKU-1", 96)).thenReturn(List.of());
+        when(productImageRepository.findMetadataByProductId("SKU-1")).thenReturn(Optional.of(original(1000L)));
+        when(blobRepository.findMetadataByContentHash("old999")).thenReturn(Optional.of(
+                new ProductImageMetadata(null, null, "old999", "old999", "image/png", 800L, true)));
+
+        ResponseEntity<StreamingResponseBody> response =
+                productImageService.buildImageResponse("SKU-1", 96, new HttpHeaders(), "old999");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"old999\"", response.getHeaders().getETag());
+        assertEquals(800L, response.getHeaders().getContentLength());
+        assertEquals("max-age=31536000, public, immutable", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void buildImageResponse_WithUnknownVersion_ShouldReturnNotFound() {
+        when(productImageRepository.findMetadataByProductId("SKU-1")).thenReturn(Optional.empty());
+        when(blobRepository.findMetadataByContentHash("old999")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> productImageService.buildImageResponse("SKU-1", null, new HttpHeaders(), "old999"));
+    }
+
+    private ProductImageMetadata original(long length) {
+        return new ProductImageMetadata("SKU-1", null, "abc123", "abc123", "image/jpeg", length, false);
+    }
+}
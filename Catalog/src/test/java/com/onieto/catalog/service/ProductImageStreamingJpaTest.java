@@ -0,0 +1,95 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.exception.ConflictException;
+import com.onieto.catalog.model.ProductImage;
+import com.onieto.catalog.repository.ProductImageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Verifica contra una base real (H2) que los bytes enviados corresponden a los metadatos con los que
+ * se armó la respuesta, aunque la imagen se reemplace antes de empezar a transmitirla, y que una
+ * versión reemplazada se sigue sirviendo por su hash.
+ */
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+@Import(ProductImageService.class)
+class ProductImageStreamingJpaTest {
+
+    private static final byte[] ORIGINAL = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+
+    @Autowired
+    private ProductImageService productImageService;
+
+    @Autowired
+    private ProductImageRepository productImageRepository;
+
+    @MockitoBean
+    private ProductThumbnailService thumbnailService;
+
+    @BeforeEach
+    void setUp() {
+        productImageRepository.saveAndFlush(image(ORIGINAL));
+    }
+
+    @Test
+    void buildImageResponse_ShouldStreamTheRequestedRange() throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RANGE, "bytes=2-5");
+
+        ResponseEntity<StreamingResponseBody> response =
+                productImageService.buildImageResponse("FR001", null, headers, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(4L, response.getHeaders().getContentLength());
+        assertArrayEquals(new byte[]{3, 4, 5, 6}, out.toByteArray());
+    }
+
+    @Test
+    void buildImageResponse_WhenImageChangesBeforeStreaming_ShouldAbortWithoutWriting() {
+        ResponseEntity<StreamingResponseBody> response =
+                productImageService.buildImageResponse("FR001", null, new HttpHeaders(), null);
+        productImageRepository.saveAndFlush(image(new byte[]{9, 9, 9}));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThrows(ConflictException.class, () -> response.getBody().writeTo(out));
+
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    void buildImageResponse_WithReplacedVersion_ShouldStreamTheArchivedBytes() throws IOException {
+        productImageService.saveImage("FR001", new byte[]{9, 9, 9});
+
+        ResponseEntity<StreamingResponseBody> response = productImageService.buildImageResponse("FR001", null,
+                new HttpHeaders(), ProductImageService.sha256(ORIGINAL));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertArrayEquals(ORIGINAL, out.toByteArray());
+    }
+
+    private ProductImage image(byte[] data) {
+        return ProductImage.builder()
+                .productId("FR001")
+                .contentHash(ProductImageService.sha256(data))
+                .contentType("image/png")
+                .contentLength((long) data.length)
+                .data(data)
+                .build();
+    }
+}
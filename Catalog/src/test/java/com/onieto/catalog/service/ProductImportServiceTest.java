@@ -0,0 +1,182 @@
+package com.onieto.catalog.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onieto.catalog.dto.ProductImportReport;
+import com.onieto.catalog.model.Category;
+import com.onieto.catalog.model.Unit;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    private static final String DESCRIPTION = "Descripción suficientemente larga";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private UnitService unitService;
+
+    @Mock
+    private ProductImageService productImageService;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ProductSuggestIndex productSuggestIndex;
+
+    @Mock
+    private ProductFacetCounter productFacetCounter;
+
+    @Mock
+    private LowStockWatchList lowStockWatchList;
+
+    @Mock
+    private ProductChangeLog productChangeLog;
+
+    private ProductImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        importService = new ProductImportService(jdbcTemplate, transactionTemplate, objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), categoryService, unitService,
+                productImageService, productCache, productSuggestIndex, productFacetCounter, lowStockWatchList, productChangeLog, 2);
+
+        when(categoryService.getAllCategories()).thenReturn(List.of(Category.builder().id(1L).name("frutas").build()));
+        when(unitService.getAllUnits()).thenReturn(List.of(Unit.builder().id(2L).name("kg").build()));
+        doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void importProducts_Ndjson_ShouldInsertValidRowsInBatchesAndReportErrors() {
+        String body = String.join("\n",
+                row("FR101", "Peras", "frutas", "kg"),
+                row("FR102", "Uvas", "Frutas", "KG"),
+                "",
+                row("FR103", "Ki", "frutas", "kg"),
+                row("FR104", "Higos", "carnes", "kg"),
+                "{no es json",
+                row("FR105", "Duraznos", "frutas", "kg"));
+
+        ProductImportReport report = importService.importProducts(stream(body), MediaType.parseMediaType("application/x-ndjson"));
+
+        assertEquals(6, report.processed());
+        assertEquals(3, report.imported());
+        assertEquals(List.of(4L, 5L, 6L), report.errors().stream().map(ProductImportReport.RowError::line).toList());
+        assertTrue(report.errors().get(0).message().startsWith("nombre:"));
+        assertTrue(report.errors().get(1).message().startsWith("categoriaId:"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batches.capture());
+        assertEquals(2, batches.getAllValues().get(0).size());
+        assertEquals(1L, batches.getAllValues().get(0).get(1)[7]);
+        verify(productSuggestIndex).put("FR105", "Duraznos");
+        verify(productFacetCounter).rebuild();
+    }
+
+    @Test
+    void importProducts_Csv_ShouldHonourQuotedFields() {
+        String body = "id,nombre,descripcion,precio,stock,categoriaId,unidad\n" +
+                "FR201,\"Limones, Eureka\",\"" + DESCRIPTION + " \"\"extra\"\"\",500,10,1,kg\n" +
+                "FR202,Paltas,\"" + DESCRIPTION + "\",abc,10,1,kg\n";
+
+        ProductImportReport report = importService.importProducts(stream(body), MediaType.parseMediaType("text/csv"));
+
+        assertEquals(2, report.processed());
+        assertEquals(1, report.imported());
+        assertEquals("FR202", report.errors().get(0).id());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+        Object[] args = batch.getValue().get(0);
+        assertEquals("Limones, Eureka", args[1]);
+        assertEquals(DESCRIPTION + " \"extra\"", args[2]);
+        assertEquals(2L, args[8]);
+        assertEquals(List.of("a", "", ""), ProductImportService.parseCsvLine("a,,"));
+    }
+
+    @Test
+    void importProducts_WithRepeatedIdInBatch_ShouldRejectTheDuplicate() {
+        String body = String.join("\n",
+                row("FR101", "Peras", "frutas", "kg"),
+                row("FR101", "Peras rojas", "frutas", "kg"));
+
+        ProductImportReport report = importService.importProducts(stream(body), MediaType.parseMediaType("application/x-ndjson"));
+
+        assertEquals(1, report.imported());
+        assertEquals(List.of(2L), report.errors().stream().map(ProductImportReport.RowError::line).toList());
+        assertTrue(report.errors().get(0).message().contains("línea 1"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+        assertEquals(1, batch.getValue().size());
+        assertEquals("Peras", batch.getValue().get(0)[1]);
+    }
+
+    @Test
+    void importProducts_WhenImageFails_ShouldRejectTheBatchInsteadOfAborting() {
+        String withImage = row("FR101", "Peras", "frutas", "kg").replace("}", ",\"imagen\":\"AQID\"}");
+        doThrow(new DataIntegrityViolationException("imagen inválida"))
+                .when(productImageService).saveImage(eq("FR101"), any());
+
+        ProductImportReport report = importService.importProducts(stream(withImage + "\n" + row("FR102", "Uvas", "frutas", "kg")),
+                MediaType.parseMediaType("application/x-ndjson"));
+
+        assertEquals(0, report.imported());
+        assertEquals(List.of("FR101", "FR102"), report.errors().stream().map(ProductImportReport.RowError::id).toList());
+        verify(productSuggestIndex, never()).put(anyString(), anyString());
+    }
+
+    private String row(String id, String nombre, String categoria, String unidad) {
+        return "{\"id\":\"" + id + "\",\"nombre\":\"" + nombre + "\",\"descripcion\":\"" + DESCRIPTION +
+                "\",\"precio\":100,\"stock\":5,\"categoria\":\"" + categoria + "\",\"unidad\":\"" + unidad + "\"}";
+    }
+
+    private ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
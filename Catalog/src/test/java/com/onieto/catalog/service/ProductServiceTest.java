@@ -1,7 +1,14 @@
 package com.onieto.catalog.service;
 
 import com.onieto.catalog.controller.response.MessageResponse;
+import com.onieto.catalog.dto.CursorPage;
+import com.onieto.catalog.dto.FacetCount;
+import com.onieto.catalog.dto.ProductBatchResponse;
 import com.onieto.catalog.dto.ProductDto;
+import com.onieto.catalog.dto.ProductFacets;
+import com.onieto.catalog.dto.ProductSnapshot;
+import com.onieto.catalog.dto.ProductSummary;
+import com.onieto.catalog.exception.PreconditionFailedException;
 import com.onieto.catalog.model.Category;
 import com.onieto.catalog.model.Product;
 import com.onieto.catalog.model.Unit;
@@ -17,17 +24,25 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,20 +57,156 @@ class ProductServiceTest {
     @Mock
     private UnitService unitService;
 
+    @Mock
+    private ProductImageService productImageService;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ProductSuggestIndex productSuggestIndex;
+
+    @Mock
+    private ProductFacetCounter productFacetCounter;
+
+    @Mock
+    private LowStockWatchList lowStockWatchList;
+
+    @Mock
+    private ProductChangeLog productChangeLog;
+
     @InjectMocks
     private ProductService productService;
 
     @Test
-    void getProducts_WithCategoryAndUnit_ShouldDelegateToCombinedQuery() {
-        Page<Product> expected = new PageImpl<>(List.of(Product.builder().id("SKU-1").build()));
-        when(productRepository.findByCategoriaIdAndUnidId(eq(5L), eq(7L), any(Pageable.class)))
+    void getProducts_WithCategoryAndUnit_ShouldDelegateToSummaryQuery() {
+        Page<ProductSummary> expected = new PageImpl<>(List.of(summary("SKU-1")));
+        when(productRepository.findSummaries(eq(5L), eq(7L), any(Pageable.class)))
                 .thenReturn(expected);
 
-        Page<Product> result = productService.getProducts(0, 10, 5L, 7L);
+        Page<ProductSummary> result = productService.getProducts(0, 10, 5L, 7L);
 
         assertSame(expected, result);
         verify(productRepository, times(1))
-                .findByCategoriaIdAndUnidId(eq(5L), eq(7L), any(Pageable.class));
+                .findSummaries(eq(5L), eq(7L), any(Pageable.class));
+    }
+
+    @Test
+    void searchProducts_ShouldTrimQueryAndDelegateToRankedSearch() {
+        Page<ProductSummary> expected = new PageImpl<>(List.of(summary("FR001")));
+        when(productRepository.searchSummaries(eq("manzana roja"), any(Pageable.class))).thenReturn(expected);
+
+        Page<ProductSummary> result = productService.searchProducts("  manzana roja ", 0, 10);
+
+        assertSame(expected, result);
+    }
+
+    @Test
+    void searchProducts_WithBlankQuery_ShouldFail() {
+        assertThrows(IllegalArgumentException.class, () -> productService.searchProducts(" ", 0, 10));
+    }
+
+    @Test
+    void getProductsAfter_WithMoreRows_ShouldReturnNextCursorFromLastItem() {
+        String cursor = ProductService.encodeCursor("FR001");
+        when(productRepository.findSummariesAfter(5L, null, "FR001", 3))
+                .thenReturn(List.of(summary("FR002"), summary("FR003"), summary("FR004")));
+
+        CursorPage<ProductSummary> result = productService.getProductsAfter(cursor, 2, 5L, null);
+
+        assertEquals(2, result.items().size());
+        assertEquals("FR003", ProductService.decodeCursor(result.nextCursor()));
+    }
+
+    @Test
+    void getProductsAfter_OnLastPage_ShouldNotReturnCursor() {
+        when(productRepository.findSummariesAfter(null, null, "", 11))
+                .thenReturn(List.of(summary("FR001")));
+
+        CursorPage<ProductSummary> result = productService.getProductsAfter(null, 10, null, null);
+
+        assertEquals(1, result.items().size());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void getProductsAfter_WithLimitOutOfRange_ShouldFail() {
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.getProductsAfter(null, ProductService.MAX_CURSOR_LIMIT + 1, null, null));
+    }
+
+    @Test
+    void getProductById_OnCacheMiss_ShouldLoadSnapshotFromRepository() {
+        Product product = Product.builder()
+                .id("SKU-1")
+                .nombre("Laptop")
+                .precio(150)
+                .stock(5)
+                .categoria(Category.builder().id(1L).name("Tech").build())
+                .unid(Unit.builder().id(2L).name("Unidad").build())
+                .build();
+        when(productRepository.findById("SKU-1")).thenReturn(Optional.of(product));
+        when(productCache.get(eq("SKU-1"), any())).thenAnswer(inv ->
+                inv.<Function<String, ProductSnapshot>>getArgument(1).apply("SKU-1"));
+
+        ProductSnapshot result = productService.getProductById("SKU-1");
+
+        assertEquals("Laptop", result.nombre());
+        assertEquals(new ProductSnapshot.Ref(1L, "Tech"), result.categoria());
+        assertEquals(new ProductSnapshot.Ref(2L, "Unidad"), result.unid());
+    }
+
+    @Test
+    void getProductsByIds_ShouldLoadOnlyCacheMissesAndReportMissing() {
+        ProductSnapshot cached = ProductSnapshot.from(buildProduct("SKU-1"));
+        when(productCache.getAllPresent(any())).thenReturn(Map.of("SKU-1", cached));
+        when(productCache.stamp()).thenReturn(7L);
+        when(productRepository.findAllWithReferencesByIdIn(List.of("SKU-2", "SKU-3")))
+                .thenReturn(List.of(buildProduct("SKU-2")));
+
+        ProductBatchResponse result = productService.getProductsByIds(
+                List.of("SKU-1", "SKU-2", "SKU-1", "SKU-3"), false);
+
+        assertEquals(List.of("SKU-1", "SKU-2"), List.copyOf(result.products().keySet()));
+        assertSame(cached, result.products().get("SKU-1"));
+        assertEquals(List.of("SKU-3"), result.missing());
+        verify(productCache).putAll(Map.of("SKU-2", result.products().get("SKU-2")), 7L);
+    }
+
+    @Test
+    void getProductsByIds_WithImageHash_ShouldAttachHashWithoutImageBytes() {
+        when(productCache.getAllPresent(any())).thenReturn(Map.of());
+        when(productRepository.findAllWithReferencesByIdIn(List.of("SKU-1", "SKU-2")))
+                .thenReturn(List.of(buildProduct("SKU-1"), buildProduct("SKU-2")));
+        when(productImageService.getContentHashes(any())).thenReturn(Map.of("SKU-1", "abc123"));
+
+        ProductBatchResponse result = productService.getProductsByIds(List.of("SKU-1", "SKU-2"), false, true);
+
+        assertEquals("abc123", result.products().get("SKU-1").imagenHash());
+        assertNull(result.products().get("SKU-1").imagen());
+        assertNull(result.products().get("SKU-2").imagenHash());
+        verify(productImageService, never()).findImages(any());
+    }
+
+    @Test
+    void getProductsByIds_WithoutIds_ShouldFail() {
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.getProductsByIds(List.of(" "), false));
+    }
+
+    @Test
+    void getFacets_ShouldListEveryCategoryAndUnitWithCounts() {
+        when(productFacetCounter.countByCategory(true)).thenReturn(Map.of(1L, 4L));
+        when(productFacetCounter.countByUnit(true)).thenReturn(Map.of(2L, 4L));
+        when(categoryService.getAllCategories()).thenReturn(List.of(
+                Category.builder().id(1L).name("frutas").build(),
+                Category.builder().id(3L).name("lacteos").build()));
+        when(unitService.getAllUnits()).thenReturn(List.of(Unit.builder().id(2L).name("kg").build()));
+
+        ProductFacets result = productService.getFacets(true);
+
+        assertEquals(List.of(new FacetCount(1L, "frutas", 4), new FacetCount(3L, "lacteos", 0)), result.categorias());
+        assertEquals(List.of(new FacetCount(2L, "kg", 4)), result.unidades());
     }
 
     @Test
@@ -83,6 +234,9 @@ class ProductServiceTest {
         assertEquals(dto.getPrecio(), saved.getPrecio());
         assertEquals(category, saved.getCategoria());
         assertEquals(unit, saved.getUnid());
+        verify(productImageService).saveImage(dto.getId(), dto.getImagen());
+        verify(productSuggestIndex).put(dto.getId(), dto.getNombre());
+        verify(productChangeLog).recordUpsert(dto.getId());
     }
 
     @Test
@@ -97,7 +251,7 @@ class ProductServiceTest {
                 .activo(1)
                 .categoria(Category.builder().id(1L).name("Old").build())
                 .unid(Unit.builder().id(1L).name("Old unit").build())
-                .imagen(null)
+                .version(3L)
                 .build();
 
         ProductDto dto = buildProductDto();
@@ -107,10 +261,16 @@ class ProductServiceTest {
         when(productRepository.findById(existing.getId())).thenReturn(Optional.of(existing));
         when(categoryService.getCategoryById(dto.getCategoriaId())).thenReturn(newCategory);
         when(unitService.getUnitById(dto.getUnidadId())).thenReturn(newUnit);
+        when(productRepository.saveAndFlush(existing)).thenAnswer(inv -> {
+            Product saved = inv.getArgument(0);
+            saved.setVersion(4L);
+            return saved;
+        });
 
-        ResponseEntity<MessageResponse> response = productService.updateProduct(existing.getId(), dto);
+        ResponseEntity<MessageResponse> response = productService.updateProduct(existing.getId(), dto, "\"3\"");
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"4\"", response.getHeaders().getETag());
         assertEquals(dto.getNombre(), existing.getNombre());
         assertEquals(dto.getPrecio(), existing.getPrecio());
         assertEquals(dto.getStock(), existing.getStock());
@@ -118,7 +278,46 @@ class ProductServiceTest {
         assertEquals(dto.getActivo(), existing.getActivo());
         assertEquals(newCategory, existing.getCategoria());
         assertEquals(newUnit, existing.getUnid());
-        verify(productRepository).save(existing);
+        verify(productRepository).saveAndFlush(existing);
+        verify(productImageService).saveImage(existing.getId(), dto.getImagen());
+        verify(productCache).evict(existing.getId());
+        verify(productFacetCounter).move(new ProductFacetCounter.Key(1L, 1L, true),
+                new ProductFacetCounter.Key(5L, 6L, true));
+    }
+
+    @Test
+    void createProduct_InsideTransaction_ShouldUpdateMemoryOnlyAfterCommit() {
+        ProductDto dto = buildProductDto();
+        when(categoryService.getCategoryById(dto.getCategoriaId())).thenReturn(Category.builder().id(3L).build());
+        when(unitService.getUnitById(dto.getUnidadId())).thenReturn(Unit.builder().id(4L).build());
+        when(productRepository.save(any(Product.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            productService.createProduct(dto);
+
+            verifyNoInteractions(productCache, productSuggestIndex, productFacetCounter, lowStockWatchList);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(productCache).evict(dto.getId());
+        verify(productSuggestIndex).put(dto.getId(), dto.getNombre());
+        verify(productFacetCounter).add(new ProductFacetCounter.Key(3L, 4L, true));
+    }
+
+    @Test
+    void updateProduct_WithStaleIfMatch_ShouldFailWithoutSaving() {
+        Product existing = buildProduct("SKU-1");
+        existing.setVersion(7L);
+        when(productRepository.findById("SKU-1")).thenReturn(Optional.of(existing));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> productService.updateProduct("SKU-1", buildProductDto(), "\"6\""));
+
+        verify(productRepository, never()).save(any(Product.class));
     }
 
     @Test
@@ -141,6 +340,25 @@ class ProductServiceTest {
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(productRepository).delete(product);
+        verify(productImageService).deleteImage(product.getId());
+        verify(productCache).evict(product.getId());
+        verify(productSuggestIndex).remove(product.getId());
+        verify(productChangeLog).recordDelete(product.getId());
+    }
+
+    private Product buildProduct(String id) {
+        return Product.builder()
+                .id(id)
+                .nombre("Producto " + id)
+                .precio(150)
+                .stock(5)
+                .categoria(Category.builder().id(1L).name("Tech").build())
+                .unid(Unit.builder().id(2L).name("Unidad").build())
+                .build();
+    }
+
+    private ProductSummary summary(String id) {
+        return new ProductSummary(id, "Producto " + id, 100, 10, 1, null, "frutas", "kg");
     }
 
     private ProductDto buildProductDto() {
@@ -0,0 +1,55 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.dto.ProductSuggestion;
+import com.onieto.catalog.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSuggestIndexTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllSuggestions()).thenReturn(List.of(
+                new ProductSuggestion("FR001", "Manzanas Fuji"),
+                new ProductSuggestion("PO001", "Miel Orgánica"),
+                new ProductSuggestion("VR001", "Zanahorias Orgánicas")));
+        meterRegistry = new SimpleMeterRegistry();
+        index = new ProductSuggestIndex(productRepository, meterRegistry);
+        index.rebuild();
+    }
+
+    @Test
+    void suggest_ShouldMatchAnyWordIgnoringCaseAndAccents() {
+        List<ProductSuggestion> result = index.suggest("ORGANI", 10);
+
+        assertEquals(List.of("PO001", "VR001"), result.stream().map(ProductSuggestion::id).toList());
+        assertEquals(List.of("FR001"), index.suggest("manzanas f", 10).stream().map(ProductSuggestion::id).toList());
+        assertTrue(index.suggest("  ", 10).isEmpty());
+    }
+
+    @Test
+    void putAndRemove_ShouldUpdateIndexAndMemoryGauge() {
+        double before = meterRegistry.get("catalog.products.suggest.memory").gauge().value();
+
+        index.put("FR001", "Peras Asiáticas");
+        assertTrue(index.suggest("manz", 10).isEmpty());
+        assertEquals(List.of("FR001"), index.suggest("asiat", 10).stream().map(ProductSuggestion::id).toList());
+
+        index.remove("FR001");
+        assertTrue(index.suggest("peras", 10).isEmpty());
+        assertTrue(meterRegistry.get("catalog.products.suggest.memory").gauge().value() < before);
+        assertEquals(4.0, meterRegistry.get("catalog.products.suggest.entries").gauge().value());
+    }
+}
@@ -0,0 +1,118 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.model.ProductImage;
+import com.onieto.catalog.model.ProductImageVariant;
+import com.onieto.catalog.repository.ProductImageRepository;
+import com.onieto.catalog.repository.ProductImageVariantRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductThumbnailServiceTest {
+
+    @Mock
+    private ProductImageRepository productImageRepository;
+
+    @Mock
+    private ProductImageVariantRepository variantRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductThumbnailService thumbnailService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        thumbnailService = new ProductThumbnailService(productImageRepository, variantRepository,
+                new SyncTaskExecutor(), transactionTemplate, List.of(800, 96, 320), meterRegistry);
+        lenient().doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void scheduleThumbnails_ShouldOnlyGenerateWidthsSmallerThanOriginal() throws IOException {
+        when(productImageRepository.findById("SKU-1")).thenReturn(Optional.of(image(jpeg(500, 250))));
+        when(productImageRepository.lockContentHash("SKU-1")).thenReturn(Optional.of("source"));
+
+        thumbnailService.scheduleThumbnails("SKU-1");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ProductImageVariant>> captor = ArgumentCaptor.forClass(List.class);
+        verify(variantRepository).saveAll(captor.capture());
+        List<ProductImageVariant> variants = captor.getValue();
+        assertEquals(2, variants.size());
+        assertEquals(96, variants.get(0).getWidth());
+        assertEquals(320, variants.get(1).getWidth());
+        assertEquals("source", variants.get(1).getSourceHash());
+        assertEquals(160, ImageIO.read(new ByteArrayInputStream(variants.get(1).getData())).getHeight());
+        verify(variantRepository).deleteStale("SKU-1", "source");
+        verify(productImageRepository).markVariantsReady("SKU-1", "source");
+        assertEquals(1.0, meterRegistry.counter("catalog.images.thumbnails.completed").count());
+    }
+
+    @Test
+    void scheduleThumbnails_WhenImageWasReplaced_ShouldNotWriteOrDelete() throws IOException {
+        when(productImageRepository.findById("SKU-1")).thenReturn(Optional.of(image(jpeg(500, 250))));
+        when(productImageRepository.lockContentHash("SKU-1")).thenReturn(Optional.of("newer"));
+
+        thumbnailService.scheduleThumbnails("SKU-1");
+
+        verify(variantRepository, never()).saveAll(any());
+        verify(variantRepository, never()).deleteStale(any(), any());
+        verify(productImageRepository, never()).markVariantsReady(any(), any());
+    }
+
+    @Test
+    void resize_ShouldKeepAspectRatio() {
+        BufferedImage source = new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB);
+
+        BufferedImage resized = ProductThumbnailService.resize(source, 96);
+
+        assertEquals(96, resized.getWidth());
+        assertEquals(72, resized.getHeight());
+    }
+
+    private ProductImage image(byte[] jpeg) {
+        return ProductImage.builder()
+                .productId("SKU-1")
+                .contentHash("source")
+                .contentType("image/jpeg")
+                .contentLength((long) jpeg.length)
+                .data(jpeg)
+                .build();
+    }
+
+    private byte[] jpeg(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpg", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,61 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.model.Category;
+import com.onieto.catalog.model.Unit;
+import com.onieto.catalog.repository.CategoryRepository;
+import com.onieto.catalog.repository.UnitRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private UnitRepository unitRepository;
+
+    @InjectMocks
+    private ReferenceData referenceData;
+
+    @Test
+    void reads_ShouldLoadOnceAndServeFromSnapshot() {
+        Category frutas = Category.builder().id(2L).name("Frutas").version(1L).build();
+        when(categoryRepository.findAll()).thenReturn(List.of(frutas, Category.builder().id(1L).name("Lácteos").version(0L).build()));
+
+        assertEquals(List.of(1L, 2L), referenceData.getCategories().stream().map(Category::getId).toList());
+        Category found = referenceData.findCategory(2L).orElseThrow();
+        assertTrue(referenceData.findCategory(9L).isEmpty());
+
+        assertNotSame(frutas, found);
+        assertEquals(1L, found.getVersion());
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    void reloadUnits_ShouldSwapSnapshot() {
+        when(unitRepository.findAll())
+                .thenReturn(List.of(Unit.builder().id(1L).name("Kg").version(0L).build()))
+                .thenReturn(List.of(Unit.builder().id(1L).name("Kilogramo").version(1L).build()));
+
+        assertEquals("Kg", referenceData.findUnitByName("kg").orElseThrow().getName());
+
+        referenceData.reloadUnits();
+
+        assertTrue(referenceData.findUnitByName("kg").isEmpty());
+        assertEquals("Kilogramo", referenceData.findUnit(1L).orElseThrow().getName());
+    }
+}
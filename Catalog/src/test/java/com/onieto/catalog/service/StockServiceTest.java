@@ -0,0 +1,138 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.dto.StockLineDto;
+import com.onieto.catalog.dto.StockOperationResult;
+import com.onieto.catalog.model.ProductChange;
+import com.onieto.catalog.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StockServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ProductFacetCounter productFacetCounter;
+
+    @Mock
+    private LowStockWatchList lowStockWatchList;
+
+    @Mock
+    private ProductChangeLog productChangeLog;
+
+    @InjectMocks
+    private StockService stockService;
+
+    private TransactionStatus transactionStatus;
+
+    @BeforeEach
+    void setUp() {
+        transactionStatus = mock(TransactionStatus.class);
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(transactionStatus));
+    }
+
+    @Test
+    void reserve_WithEnoughStock_ShouldDecrementAndMergeDuplicateLines() throws SQLException {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(-3), eq(3), eq("FR001"), eq(3)))
+                .thenAnswer(inv -> List.of(mapRow(inv.getArgument(1), "FR001", 0, 3)));
+
+        StockOperationResult result = stockService.reserve(List.of(
+                new StockLineDto("FR001", 1), new StockLineDto("FR001", 2)));
+
+        assertTrue(result.applied());
+        assertEquals(List.of(new StockOperationResult.Line("FR001", 3, StockOperationResult.Status.OK, 0, 3)),
+                result.lines());
+        verify(productCache).evict("FR001");
+        verify(productFacetCounter).move(new ProductFacetCounter.Key(1L, 2L, true),
+                new ProductFacetCounter.Key(1L, 2L, false));
+        verify(lowStockWatchList).update("FR001", "Manzana", 0, 5);
+        verify(productChangeLog).recordAll(Set.of("FR001"), ProductChange.Type.UPSERT);
+    }
+
+    @Test
+    void reserve_WhenAnyLineFails_ShouldRollBackWholeBatch() throws SQLException {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(-1), eq(1), eq("FR001"), eq(1)))
+                .thenAnswer(inv -> List.of(mapRow(inv.getArgument(1), "FR001", 9, 1)));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(-5), eq(5), eq("FR002"), eq(5)))
+                .thenReturn(List.of());
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(-1), eq(1), eq("XX999"), eq(1)))
+                .thenReturn(List.of());
+        when(productRepository.existsById("FR002")).thenReturn(true);
+        when(productRepository.existsById("XX999")).thenReturn(false);
+
+        StockOperationResult result = stockService.reserve(List.of(
+                new StockLineDto("XX999", 1), new StockLineDto("FR002", 5), new StockLineDto("FR001", 1)));
+
+        assertFalse(result.applied());
+        assertEquals(List.of(StockOperationResult.Status.OK, StockOperationResult.Status.INSUFFICIENT_STOCK,
+                        StockOperationResult.Status.NOT_FOUND),
+                result.lines().stream().map(StockOperationResult.Line::status).toList());
+        assertNull(result.lines().get(0).stock());
+        verify(transactionStatus).setRollbackOnly();
+        verify(productCache, never()).evict(anyString());
+        verify(productChangeLog, never()).recordAll(any(), any());
+    }
+
+    @Test
+    void commit_ShouldOnlyDecrementReserved() throws SQLException {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(0), eq(-2), eq("FR001"), eq(2)))
+                .thenAnswer(inv -> List.of(mapRow(inv.getArgument(1), "FR001", 4, 0)));
+
+        StockOperationResult result = stockService.commit(List.of(new StockLineDto("FR001", 2)));
+
+        assertTrue(result.applied());
+        verify(productFacetCounter).move(new ProductFacetCounter.Key(1L, 2L, true),
+                new ProductFacetCounter.Key(1L, 2L, true));
+    }
+
+    private Object mapRow(RowMapper<?> mapper, String id, int stock, int reserved) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString("id")).thenReturn(id);
+        when(rs.getString("nombre")).thenReturn("Manzana");
+        when(rs.getInt("stock_minimo")).thenReturn(5);
+        when(rs.getInt("stock")).thenReturn(stock);
+        when(rs.getInt("stock_reservado")).thenReturn(reserved);
+        when(rs.getInt("activo")).thenReturn(1);
+        when(rs.getLong("categoria_id")).thenReturn(1L);
+        when(rs.getLong("unit_id")).thenReturn(2L);
+        return mapper.mapRow(rs, 0);
+    }
+}
@@ -15,6 +15,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -28,18 +29,30 @@ class UnitServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ProductChangeLog productChangeLog;
+
+    @Mock
+    private CatalogVersions catalogVersions;
+
+    @Mock
+    private ReferenceData referenceData;
+
     @InjectMocks
     private UnitService unitService;
 
     @Test
-    void getAllUnits_ShouldReturnRepositoryPayload() {
+    void getAllUnits_ShouldReturnReferenceSnapshot() {
         List<Unit> units = List.of(Unit.builder().id(1L).name("Caja").build());
-        when(unitRepository.findAll()).thenReturn(units);
+        when(referenceData.getUnits()).thenReturn(units);
 
         List<Unit> result = unitService.getAllUnits();
 
         assertSame(units, result);
-        verify(unitRepository).findAll();
+        verify(unitRepository, never()).findAll();
     }
 
     @Test
@@ -64,7 +77,10 @@ class UnitServiceTest {
         unitService.updateUnit(id, updated);
 
         assertEquals("Galón", existing.getName());
-        verify(unitRepository).save(existing);
+        verify(unitRepository).saveAndFlush(existing);
+        verify(productCache).evictAll();
+        verify(productChangeLog).recordUnit(id);
+        verify(catalogVersions).touch(CatalogVersions.Table.UNITS);
     }
 
     @Test
@@ -72,11 +88,12 @@ class UnitServiceTest {
         Long id = 2L;
         Unit existing = Unit.builder().id(id).name("Bolsa").build();
 
-        when(unitRepository.findById(id)).thenReturn(Optional.of(existing));
+        when(referenceData.findUnit(id)).thenReturn(Optional.of(existing));
         when(productRepository.existsProductsByUnidId(id)).thenReturn(false);
 
         unitService.deleteUnit(id);
 
         verify(unitRepository).deleteById(id);
+        verify(referenceData).reloadUnits();
     }
 }
@@ -0,0 +1,152 @@
+package com.onieto.catalog.service;
+
+import com.onieto.catalog.controller.response.MessageResponse;
+import com.onieto.catalog.dto.ProductDto;
+import com.onieto.catalog.model.Category;
+import com.onieto.catalog.model.Product;
+import com.onieto.catalog.model.Unit;
+import com.onieto.catalog.repository.CategoryRepository;
+import com.onieto.catalog.repository.ProductRepository;
+import com.onieto.catalog.repository.UnitRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica contra una base real (H2) que el ETag de una actualización es la versión que quedó
+ * guardada, es decir la leída más uno, y no la anterior al UPDATE.
+ */
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+@Import({ProductService.class, CategoryService.class, UnitService.class})
+class VersionedUpdateJpaTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private UnitService unitService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockitoBean
+    private ProductImageService productImageService;
+
+    @MockitoBean
+    private ProductCache productCache;
+
+    @MockitoBean
+    private ProductSuggestIndex productSuggestIndex;
+
+    @MockitoBean
+    private ProductFacetCounter productFacetCounter;
+
+    @MockitoBean
+    private LowStockWatchList lowStockWatchList;
+
+    @MockitoBean
+    private ProductChangeLog productChangeLog;
+
+    @MockitoBean
+    private CatalogVersions catalogVersions;
+
+    @MockitoBean
+    private ReferenceData referenceData;
+
+    private Category category;
+    private Unit unit;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.saveAndFlush(new Category("frutas"));
+        unit = unitRepository.saveAndFlush(new Unit("kg"));
+    }
+
+    @Test
+    void updateProduct_ShouldReturnStoredVersionAsETag() {
+        Product product = productRepository.saveAndFlush(Product.builder()
+                .id("FR001")
+                .nombre("Manzana")
+                .descripcion("Manzana roja de temporada, por kilo")
+                .precio(1200)
+                .stock(10)
+                .stockMinimo(2)
+                .activo(1)
+                .categoria(category)
+                .unid(unit)
+                .build());
+        long readVersion = product.getVersion();
+        when(referenceData.findCategory(category.getId())).thenReturn(Optional.of(category));
+        when(referenceData.findUnit(unit.getId())).thenReturn(Optional.of(unit));
+
+        ResponseEntity<MessageResponse> response = productService.updateProduct("FR001", productDto(),
+                "\"" + readVersion + "\"");
+
+        assertEquals("\"" + (readVersion + 1) + "\"", response.getHeaders().getETag());
+        assertEquals(readVersion + 1, storedVersion(Product.class, "FR001"));
+    }
+
+    @Test
+    void updateCategory_ShouldReturnStoredVersion() {
+        long readVersion = category.getVersion();
+
+        Category saved = categoryService.updateCategory(category.getId(), new Category("verduras"),
+                "\"" + readVersion + "\"");
+
+        assertEquals(readVersion + 1, saved.getVersion());
+        assertEquals(readVersion + 1, storedVersion(Category.class, category.getId()));
+    }
+
+    @Test
+    void updateUnit_ShouldReturnStoredVersion() {
+        long readVersion = unit.getVersion();
+
+        Unit saved = unitService.updateUnit(unit.getId(), new Unit("litro"), "\"" + readVersion + "\"");
+
+        assertEquals(readVersion + 1, saved.getVersion());
+        assertEquals(readVersion + 1, storedVersion(Unit.class, unit.getId()));
+    }
+
+    private long storedVersion(Class<?> entity, Object id) {
+        entityManager.clear();
+        return entityManager.createQuery("select e.version from " + entity.getSimpleName() + " e where e.id = :id",
+                        Long.class)
+                .setParameter("id", id)
+                .getSingleResult();
+    }
+
+    private ProductDto productDto() {
+        ProductDto dto = new ProductDto();
+        dto.setNombre("Manzana verde");
+        dto.setDescripcion("Manzana verde de temporada, por kilo");
+        dto.setCategoriaId(category.getId());
+        dto.setUnidadId(unit.getId());
+        dto.setPrecio(1300);
+        dto.setStock(8);
+        dto.setStockMinimo(2);
+        dto.setActivo(1);
+        return dto;
+    }
+}
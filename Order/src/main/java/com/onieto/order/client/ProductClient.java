@@ -1,13 +1,26 @@
 package com.onieto.order.client;
 
+import com.onieto.order.config.SmileConfig;
+import com.onieto.order.dto.ProductBatchResponseDto;
 import com.onieto.order.dto.ProductResponseDto;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.Collection;
 
 @FeignClient(name = "catalog", url = "${client.catalog.url:http://localhost:8081/api/products}")
 public interface ProductClient {
 
-    @GetMapping("/{id}")
+    // Solo el hash de la imagen: los ítems guardan una referencia y la imagen se sirve desde Catalog
+    @GetMapping(value = "/{id}?includeImageHash=true", produces = {SmileConfig.SMILE_VALUE, MediaType.APPLICATION_JSON_VALUE})
     ProductResponseDto getProductById(@PathVariable("id") String id);
+
+    // Una sola llamada para todos los ítems de la orden; la respuesta se pide en Smile y el cuerpo se envía en JSON
+    @PostMapping(value = "/batch?includeImageHash=true", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = {SmileConfig.SMILE_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    ProductBatchResponseDto getProductsByIds(@RequestBody Collection<String> ids);
 }
@@ -0,0 +1,31 @@
+package com.onieto.order.config;
+
+import com.onieto.order.service.UserValidatorService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code DELETE /actuator/usercache[?email=...]}: descarta la validación en caché del email indicado,
+ * o de todos los usuarios si se omite, para que un cambio de estado en ms-users tenga efecto de
+ * inmediato. Es una operación de administración: el gateway solo enruta {@code /api/orders/**}, así
+ * que no queda expuesta al público.
+ */
+@Component
+@Endpoint(id = "usercache")
+@RequiredArgsConstructor
+public class UserCacheEndpoint {
+
+    private final UserValidatorService userValidatorService;
+
+    @DeleteOperation
+    public void evict(@Nullable String email) {
+        if (email == null) {
+            userValidatorService.evictAll();
+        } else {
+            userValidatorService.evict(email);
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.onieto.order.controller;
 
 import com.onieto.order.controller.response.MessageResponse;
 import com.onieto.order.controller.response.OrderResponse;
+import com.onieto.order.dto.CursorPage;
 import com.onieto.order.dto.OrderDto;
+import com.onieto.order.dto.OrderFilter;
 import com.onieto.order.model.OrderStatus;
 import com.onieto.order.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,6 +12,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -24,6 +27,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.onieto.order.dto.AddItemToOrderRequest;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -33,11 +37,46 @@ public class OrderController {
 
     private final OrderService orderService;
 
-    @Operation(summary = "Listar órdenes", description = "Obtiene todas las órdenes registradas.")
-    @ApiResponse(responseCode = "200", description = "Órdenes listadas correctamente")
+    @Operation(
+            summary = "Listar órdenes con paginación y filtros opcionales",
+            description = "Obtiene las órdenes de la más reciente a la más antigua, con filtros opcionales por estado, " +
+                    "email del usuario (sin distinguir mayúsculas) y rango de fechas (from inclusive, to exclusive, " +
+                    "formato ISO). Los encabezados X-Total-Count y X-Total-Pages informan el total."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Órdenes listadas correctamente"),
+            @ApiResponse(responseCode = "400", description = "Página, tamaño o rango de fechas inválidos")
+    })
     @GetMapping
-    public ResponseEntity<List<OrderResponse>> getAllOrders() {
-        return orderService.getAllOrders();
+    public ResponseEntity<List<OrderResponse>> getOrders(
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String userEmail,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return orderService.getOrders(page, size, new OrderFilter(status, from, to, userEmail));
+    }
+
+    @Operation(
+            summary = "Recorrer órdenes por cursor",
+            description = "Mismos filtros y orden que el listado paginado, sin calcular el total. La respuesta " +
+                    "incluye items y nextCursor, que se pasa como after para pedir la página siguiente; " +
+                    "nextCursor es nulo en la última página."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Órdenes listadas correctamente"),
+            @ApiResponse(responseCode = "400", description = "Cursor, límite o rango de fechas inválidos")
+    })
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<OrderResponse>> getOrdersByCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") Integer limit,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String userEmail,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return orderService.getOrdersBefore(after, limit, new OrderFilter(status, from, to, userEmail));
     }
 
     @Operation(summary = "Obtener orden por ID", description = "Devuelve los detalles de una orden específica.")
@@ -0,0 +1,9 @@
+package com.onieto.order.dto;
+
+import java.util.List;
+
+/**
+ * Página obtenida por cursor (keyset). {@code nextCursor} es opaco y es nulo en la última página.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+}
@@ -0,0 +1,14 @@
+package com.onieto.order.dto;
+
+import com.onieto.order.model.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros opcionales del listado de órdenes; los valores nulos no filtran.
+ *
+ * @param from fecha de la orden desde (inclusive)
+ * @param to   fecha de la orden hasta (exclusive)
+ */
+public record OrderFilter(OrderStatus estado, LocalDateTime from, LocalDateTime to, String userEmail) {
+}
@@ -0,0 +1,16 @@
+package com.onieto.order.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProductBatchResponseDto {
+    private Map<String, ProductResponseDto> products = new HashMap<>();
+    private List<String> missing = new ArrayList<>();
+}
@@ -16,4 +16,5 @@ public class ProductResponseDto {
     private Long categoriaId;
     private Long unidadId;
     private byte[] imagen;
+    private String imagenHash;
 }
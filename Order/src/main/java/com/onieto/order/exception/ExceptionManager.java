@@ -47,6 +47,13 @@ public class ExceptionManager {
                 .body(new MessageResponse(ex.getMessage()));
     }
 
+    //503
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<?> handleServiceUnavailable(ServiceUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new MessageResponse(ex.getMessage()));
+    }
+
     //Manejar otras validaciones como ConstraintViolationException si aplicas validación a nivel de método
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<?> handleConstraintViolation(ConstraintViolationException ex) {
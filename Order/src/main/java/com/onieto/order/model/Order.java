@@ -17,7 +17,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_email", columnList = "user_email, id"),
+        @Index(name = "idx_orders_estado", columnList = "estado, id"),
+        @Index(name = "idx_orders_order_date", columnList = "order_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
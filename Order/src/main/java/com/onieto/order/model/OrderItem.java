@@ -1,6 +1,7 @@
 package com.onieto.order.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -13,7 +14,7 @@ import lombok.NoArgsConstructor;
 
 
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = @Index(name = "idx_order_items_order", columnList = "order_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -40,10 +41,15 @@ public class OrderItem {
     @NotNull(message = "El precio unitario es obligatorio")
     private Integer unitPrice;
 
+    // Legado: imagen en base64 de los ítems creados antes de guardar solo la referencia
     @Lob
     @Column(name = "product_image")
     private String productImage;
 
+    // Hash del contenido de la imagen en Catalog al momento de agregar el ítem
+    @Column(name = "product_image_hash", length = 64)
+    private String productImageHash;
+
     @NotNull(message = "La cantidad no puede ser nula")
     @Positive(message = "La cantidad debe ser mayor que 0")
     private Integer quantity;
@@ -51,4 +57,15 @@ public class OrderItem {
     @NotNull(message = "El subtotal es obligatorio")
     @Column(name = "subtotal")
     private Integer subtotal;
+
+    /**
+     * Ruta (a través del gateway) de la imagen del producto en Catalog. El parámetro v es el hash
+     * guardado en el ítem y el navegador la guarda en caché. Catalog conserva cada contenido por su
+     * hash, así que la ruta sigue mostrando la imagen del momento de la compra aunque el producto la
+     * haya cambiado o quitado. Nula para ítems sin imagen o legados.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public String getProductImageUrl() {
+        return productImageHash != null ? "/api/products/" + productId + "/image?v=" + productImageHash : null;
+    }
 }
@@ -0,0 +1,19 @@
+package com.onieto.order.repository;
+
+import com.onieto.order.dto.OrderFilter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Primer paso del listado de órdenes: solo los ids de la página, de la más reciente a la más antigua.
+ * Las órdenes se cargan después con {@link OrderRepository#findAllWithItemsByIdIn}, así la paginación
+ * se hace en SQL y no sobre filas multiplicadas por el fetch join de los ítems.
+ */
+public interface OrderListingRepository {
+
+    Page<Long> findIds(OrderFilter filter, Pageable pageable);
+
+    List<Long> findIdsBefore(OrderFilter filter, Long beforeId, int limit);
+}
@@ -0,0 +1,73 @@
+package com.onieto.order.repository;
+
+import com.onieto.order.dto.OrderFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class OrderListingRepositoryImpl implements OrderListingRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Long> findIds(OrderFilter filter, Pageable pageable) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String where = buildWhere(filter, null, params);
+
+        TypedQuery<Long> query = entityManager
+                .createQuery("select o.id from Order o" + where + " order by o.id desc", Long.class)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize());
+        params.forEach(query::setParameter);
+        List<Long> content = query.getResultList();
+
+        TypedQuery<Long> count = entityManager.createQuery("select count(o) from Order o" + where, Long.class);
+        params.forEach(count::setParameter);
+        return new PageImpl<>(content, pageable, count.getSingleResult());
+    }
+
+    @Override
+    public List<Long> findIdsBefore(OrderFilter filter, Long beforeId, int limit) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String where = buildWhere(filter, beforeId, params);
+
+        TypedQuery<Long> query = entityManager
+                .createQuery("select o.id from Order o" + where + " order by o.id desc", Long.class)
+                .setMaxResults(limit);
+        params.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    private String buildWhere(OrderFilter filter, Long beforeId, Map<String, Object> params) {
+        StringBuilder where = new StringBuilder();
+        if (filter.estado() != null) {
+            where.append(where.isEmpty() ? " where " : " and ").append("o.estado = :estado");
+            params.put("estado", filter.estado());
+        }
+        if (filter.userEmail() != null) {
+            where.append(where.isEmpty() ? " where " : " and ").append("o.userEmail = :userEmail");
+            params.put("userEmail", filter.userEmail());
+        }
+        if (filter.from() != null) {
+            where.append(where.isEmpty() ? " where " : " and ").append("o.orderDate >= :from");
+            params.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            where.append(where.isEmpty() ? " where " : " and ").append("o.orderDate < :to");
+            params.put("to", filter.to());
+        }
+        if (beforeId != null) {
+            where.append(where.isEmpty() ? " where " : " and ").append("o.id < :beforeId");
+            params.put("beforeId", beforeId);
+        }
+        return where.toString();
+    }
+}
@@ -3,11 +3,20 @@ package com.onieto.order.repository;
 import com.onieto.order.model.Order;
 import com.onieto.order.model.OrderStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderListingRepository {
 
     Optional<Order> findFirstByUserEmailAndEstadoOrderByOrderDateDesc(String userEmail, OrderStatus estado);
+
+    // Cupón e ítems en la misma consulta: sin selects adicionales al armar la respuesta
+    @Query("select distinct o from Order o left join fetch o.coupon left join fetch o.items where o.id in :ids")
+    List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
 }
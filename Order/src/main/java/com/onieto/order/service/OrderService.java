@@ -1,12 +1,13 @@
 package com.onieto.order.service;
 
-import com.onieto.order.client.ProductClient;
 import com.onieto.order.controller.response.CouponResponse;
 import com.onieto.order.controller.response.MessageResponse;
 import com.onieto.order.controller.response.OrderResponse;
 import com.onieto.order.controller.response.UserResponseDto;
 import com.onieto.order.dto.AddItemToOrderRequest;
+import com.onieto.order.dto.CursorPage;
 import com.onieto.order.dto.OrderDto;
+import com.onieto.order.dto.OrderFilter;
 import com.onieto.order.dto.OrderItemRequestDto;
 import com.onieto.order.dto.ProductResponseDto;
 import com.onieto.order.exception.ResourceNotFoundException;
@@ -15,29 +16,37 @@ import com.onieto.order.model.Order;
 import com.onieto.order.model.OrderItem;
 import com.onieto.order.model.OrderStatus;
 import com.onieto.order.repository.OrderRepository;
-import feign.FeignException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
+    public static final int MAX_PAGE_SIZE = 100;
+
     private static final int ZERO = 0;
 
     private final OrderRepository orderRepository;
     private final CouponService couponService;
     private final UserValidatorService userValidatorService;
-    private final ProductClient productClient;
+    private final ProductLookupService productLookupService;
+    private final ProductSnapshotCache productSnapshotCache;
 
     public ResponseEntity<OrderResponse> getOrderDtoById(Long id) {
         Order order = getOrderById(id);
@@ -49,12 +58,86 @@ public class OrderService {
                 .orElseThrow(() -> new ResourceNotFoundException("Orden no encontrada: " + id));
     }
 
-    public ResponseEntity<List<OrderResponse>> getAllOrders() {
-        List<OrderResponse> responses = orderRepository.findAll()
-                .stream()
+    /**
+     * Lista órdenes de la más reciente a la más antigua, paginadas y filtradas. Se resuelve en pocas
+     * sentencias sin importar el tamaño de la página: los ids de la página, el conteo total y una
+     * única carga de esas órdenes con su cupón e ítems.
+     */
+    public ResponseEntity<List<OrderResponse>> getOrders(Integer page, Integer size, OrderFilter filter) {
+        if (page == null || page < 0) {
+            throw new IllegalArgumentException("El número de página no puede ser negativo.");
+        }
+        validateLimit(size);
+        OrderFilter criteria = normalize(filter);
+
+        Page<Long> ids = orderRepository.findIds(criteria, PageRequest.of(page, size));
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(ids.getTotalElements()))
+                .header("X-Total-Pages", String.valueOf(ids.getTotalPages()))
+                .body(loadOrders(ids.getContent()));
+    }
+
+    /**
+     * Recorre las órdenes por cursor (keyset sobre el id), sin conteo ni offset: el costo de una
+     * página no crece con la profundidad. Se pide un id extra para saber si hay página siguiente.
+     */
+    public ResponseEntity<CursorPage<OrderResponse>> getOrdersBefore(String cursor, Integer limit, OrderFilter filter) {
+        validateLimit(limit);
+        Long beforeId = decodeCursor(cursor);
+        List<Long> ids = orderRepository.findIdsBefore(normalize(filter), beforeId, limit + 1);
+
+        if (ids.size() <= limit) {
+            return ResponseEntity.ok(new CursorPage<>(loadOrders(ids), null));
+        }
+        List<Long> pageIds = ids.subList(0, limit);
+        return ResponseEntity.ok(new CursorPage<>(loadOrders(pageIds), encodeCursor(pageIds.get(limit - 1))));
+    }
+
+    // Conserva el orden de los ids: la consulta con fetch join no garantiza ninguno
+    private List<OrderResponse> loadOrders(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Order> orders = orderRepository.findAllWithItemsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        return ids.stream()
+                .map(orders::get)
+                .filter(Objects::nonNull)
                 .map(this::convertToDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(responses);
+                .toList();
+    }
+
+    private void validateLimit(Integer size) {
+        if (size == null || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + MAX_PAGE_SIZE + ".");
+        }
+    }
+
+    private OrderFilter normalize(OrderFilter filter) {
+        if (filter == null) {
+            return new OrderFilter(null, null, null, null);
+        }
+        if (filter.from() != null && filter.to() != null && !filter.from().isBefore(filter.to())) {
+            throw new IllegalArgumentException("La fecha desde debe ser anterior a la fecha hasta.");
+        }
+        String userEmail = StringUtils.hasText(filter.userEmail()) ? filter.userEmail().trim() : null;
+        return new OrderFilter(filter.estado(), filter.from(), filter.to(), userEmail);
+    }
+
+    static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(lastId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Long decodeCursor(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido.");
+        }
     }
 
     // =========================
@@ -241,8 +324,11 @@ public class OrderService {
             throw new IllegalArgumentException("La orden debe contener al menos un producto.");
         }
 
+        Map<String, ProductResponseDto> products = productLookupService.getProducts(itemRequests.stream()
+                .map(OrderItemRequestDto::getProductId)
+                .toList());
         List<OrderItem> items = itemRequests.stream()
-                .map(this::buildOrderItem)
+                .map(itemDto -> buildOrderItem(itemDto, products.get(itemDto.getProductId())))
                 .collect(Collectors.toList());
 
         int subtotal = items.stream()
@@ -293,8 +379,12 @@ public class OrderService {
     // =========================
     // Construcción de OrderItem
     // =========================
+    // El carrito usa la caché local: precio vigente dentro del TTL
     private OrderItem buildOrderItem(OrderItemRequestDto itemDto) {
-        ProductResponseDto product = fetchProduct(itemDto.getProductId());
+        return buildOrderItem(itemDto, productSnapshotCache.get(itemDto.getProductId()));
+    }
+
+    private OrderItem buildOrderItem(OrderItemRequestDto itemDto, ProductResponseDto product) {
         Integer productPrice = product.getPrecio();
         if (productPrice == null) {
             throw new IllegalArgumentException("El producto " + product.getId() + " no tiene un precio definido.");
@@ -304,36 +394,15 @@ public class OrderService {
         int quantity = itemDto.getQuantity();
         int subtotal = unitPrice * quantity;
 
-        String imageBase64 = product.getImagen() != null
-                ? Base64.getEncoder().encodeToString(product.getImagen())
-                : null;
-
         return OrderItem.builder()
                 .productId(product.getId())
                 .productName(product.getNombre())
                 .productDescription(product.getDescripcion())
                 .unitPrice(unitPrice)
-                .productImage(imageBase64)
+                .productImageHash(product.getImagenHash())
                 .quantity(quantity)
                 .subtotal(subtotal)
                 .build();
     }
 
-    // =========================
-    // Cliente a ms-products
-    // =========================
-    private ProductResponseDto fetchProduct(String productId) {
-        try {
-            ProductResponseDto product = productClient.getProductById(productId);
-            if (product == null) {
-                throw new ResourceNotFoundException("Producto no encontrado: " + productId);
-            }
-            return product;
-        } catch (FeignException.NotFound e) {
-            throw new ResourceNotFoundException("Producto no encontrado: " + productId);
-        } catch (FeignException e) {
-            throw new IllegalArgumentException("Error al obtener el producto: " + e.getMessage());
-        }
-    }
-
 }
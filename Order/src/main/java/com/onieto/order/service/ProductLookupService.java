@@ -0,0 +1,155 @@
+package com.onieto.order.service;
+
+import com.onieto.order.client.ProductClient;
+import com.onieto.order.dto.ProductBatchResponseDto;
+import com.onieto.order.dto.ProductResponseDto;
+import com.onieto.order.exception.ResourceNotFoundException;
+import com.onieto.order.exception.ServiceUnavailableException;
+import feign.FeignException;
+import feign.RetryableException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resuelve los productos de una orden contra el catálogo. Los ids repetidos se consultan una sola vez
+ * y se reparten en lotes del tamaño máximo que acepta {@code POST /batch}. Los lotes, incluso uno solo,
+ * viajan en paralelo sobre un pool con cola acotada, así una orden tarda lo mismo que una llamada al
+ * catálogo y la solicitud puede dejar de esperar al vencer el plazo. Si la cola está llena la orden falla con 503
+ * en lugar de esperar detrás de consultas que ya no van a cumplir su plazo.
+ * <p>
+ * Toda la consulta tiene un plazo por orden. Cancelar un lote no interrumpe la llamada HTTP en curso:
+ * lo que libera el hilo es el read-timeout del cliente Feign {@code catalog}, que debe ser menor o igual
+ * al plazo. Los errores se informan siempre en el orden de la solicitud: el primer lote que falló y luego
+ * el primer id faltante, sin importar qué respuesta llegó antes.
+ */
+@Service
+public class ProductLookupService {
+
+    private final ProductClient productClient;
+    private final int batchSize;
+    private final Duration deadline;
+    private final ThreadPoolExecutor executor;
+
+    public ProductLookupService(ProductClient productClient,
+                                @Value("${order.products.batch-size:500}") int batchSize,
+                                @Value("${order.products.parallelism:4}") int parallelism,
+                                @Value("${order.products.queue-capacity:100}") int queueCapacity,
+                                @Value("${order.products.deadline:5s}") Duration deadline) {
+        if (batchSize < 1 || parallelism < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("El tamaño de lote, el paralelismo y la cola deben ser positivos.");
+        }
+        this.productClient = productClient;
+        this.batchSize = batchSize;
+        this.deadline = deadline;
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Devuelve los productos indexados por id. Falla con {@link ResourceNotFoundException} si alguno
+     * no existe y con {@link ServiceUnavailableException} si el catálogo no responde dentro del plazo.
+     */
+    public Map<String, ProductResponseDto> getProducts(List<String> productIds) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(productIds));
+        Map<String, ProductResponseDto> products = new HashMap<>();
+        List<CompletableFuture<Map<String, ProductResponseDto>>> batches = submitBatches(distinct);
+        awaitAll(batches);
+        for (CompletableFuture<Map<String, ProductResponseDto>> batch : batches) {
+            products.putAll(result(batch));
+        }
+        // Se informa el primer id faltante en el orden de la solicitud, igual que con llamadas individuales
+        distinct.stream()
+                .filter(id -> !products.containsKey(id))
+                .findFirst()
+                .ifPresent(id -> {
+                    throw new ResourceNotFoundException("Producto no encontrado: " + id);
+                });
+        return products;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private List<CompletableFuture<Map<String, ProductResponseDto>>> submitBatches(List<String> distinct) {
+        List<CompletableFuture<Map<String, ProductResponseDto>>> batches = new ArrayList<>();
+        try {
+            for (int from = 0; from < distinct.size(); from += batchSize) {
+                LinkedHashSet<String> ids = new LinkedHashSet<>(distinct.subList(from, Math.min(from + batchSize, distinct.size())));
+                batches.add(CompletableFuture.supplyAsync(() -> fetchBatch(ids), executor));
+            }
+        } catch (RejectedExecutionException e) {
+            batches.forEach(batch -> batch.cancel(true));
+            throw new ServiceUnavailableException("Demasiadas consultas de productos en curso; intente nuevamente.");
+        }
+        return batches;
+    }
+
+    private Map<String, ProductResponseDto> fetchBatch(LinkedHashSet<String> ids) {
+        ProductBatchResponseDto response;
+        try {
+            response = productClient.getProductsByIds(ids);
+        } catch (RetryableException e) {
+            // Timeout de conexión o de lectura: el catálogo no respondió a tiempo
+            throw new ServiceUnavailableException("El catálogo no respondió a tiempo: " + e.getMessage());
+        } catch (FeignException e) {
+            throw new IllegalArgumentException("Error al obtener los productos: " + e.getMessage());
+        }
+        return response != null && response.getProducts() != null ? response.getProducts() : Map.of();
+    }
+
+    private void awaitAll(List<CompletableFuture<Map<String, ProductResponseDto>>> batches) {
+        try {
+            CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new))
+                    .get(deadline.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            batches.forEach(batch -> batch.cancel(true));
+            throw new ServiceUnavailableException("El catálogo no respondió dentro de " + deadline.toMillis() + " ms.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batches.forEach(batch -> batch.cancel(true));
+            throw new ServiceUnavailableException("Consulta de productos interrumpida.");
+        } catch (ExecutionException e) {
+            // Algún lote falló; result() relanza el error del primero en orden
+        }
+    }
+
+    private Map<String, ProductResponseDto> result(CompletableFuture<Map<String, ProductResponseDto>> batch) {
+        try {
+            return batch.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "product-lookup-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
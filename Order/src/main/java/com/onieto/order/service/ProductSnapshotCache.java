@@ -0,0 +1,108 @@
+package com.onieto.order.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.onieto.order.client.ProductClient;
+import com.onieto.order.dto.ProductResponseDto;
+import com.onieto.order.exception.ResourceNotFoundException;
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Caché local y acotada de productos del catálogo (con el hash de la imagen, sin sus bytes) para agregar
+ * ítems al carrito.
+ * <p>
+ * Pasado el TTL una entrada se sigue entregando mientras se refresca en segundo plano; las consultas
+ * simultáneas de un mismo id que no está en caché comparten una sola llamada. Si el catálogo falla o
+ * tarda, el carrito sigue usando el precio guardado hasta que vence la ventana de gracia.
+ * Los productos devueltos son compartidos y no deben modificarse.
+ * Métricas: {@code cache.*{cache=order-products}} y {@code order.products.fetch{type=load|refresh}}.
+ */
+@Component
+public class ProductSnapshotCache {
+
+    private final ProductClient productClient;
+    private final LoadingCache<String, ProductResponseDto> cache;
+    private final Timer loadTimer;
+    private final Timer refreshTimer;
+
+    @Autowired
+    public ProductSnapshotCache(ProductClient productClient,
+                                @Value("${order.products.cache.maximum-size:10000}") long maximumSize,
+                                @Value("${order.products.cache.ttl:30s}") Duration ttl,
+                                @Value("${order.products.cache.grace:10m}") Duration grace,
+                                MeterRegistry meterRegistry) {
+        this(productClient, maximumSize, ttl, grace, meterRegistry, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    ProductSnapshotCache(ProductClient productClient, long maximumSize, Duration ttl, Duration grace,
+                         MeterRegistry meterRegistry, Ticker ticker, Executor executor) {
+        this.productClient = productClient;
+        this.loadTimer = fetchTimer(meterRegistry, "load");
+        this.refreshTimer = fetchTimer(meterRegistry, "refresh");
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(ttl)
+                .expireAfterWrite(ttl.plus(grace))
+                .ticker(ticker)
+                .executor(executor)
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public ProductResponseDto load(String id) {
+                        return loadTimer.record(() -> fetch(id));
+                    }
+
+                    @Override
+                    public ProductResponseDto reload(String id, ProductResponseDto oldValue) {
+                        // Si el refresco falla se conserva el valor anterior; si el producto ya no existe se descarta
+                        return refreshTimer.record(() -> {
+                            try {
+                                return fetch(id);
+                            } catch (ResourceNotFoundException e) {
+                                return null;
+                            }
+                        });
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "order-products");
+    }
+
+    public ProductResponseDto get(String productId) {
+        return cache.get(productId);
+    }
+
+    private ProductResponseDto fetch(String productId) {
+        ProductResponseDto product;
+        try {
+            product = productClient.getProductById(productId);
+        } catch (FeignException.NotFound e) {
+            throw new ResourceNotFoundException("Producto no encontrado: " + productId);
+        } catch (FeignException e) {
+            throw new IllegalArgumentException("Error al obtener el producto: " + e.getMessage());
+        }
+        if (product == null) {
+            throw new ResourceNotFoundException("Producto no encontrado: " + productId);
+        }
+        product.setImagen(null);
+        return product;
+    }
+
+    private static Timer fetchTimer(MeterRegistry meterRegistry, String type) {
+        return Timer.builder("order.products.fetch")
+                .description("Latencia de las consultas de productos al catálogo hechas por la caché")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+}
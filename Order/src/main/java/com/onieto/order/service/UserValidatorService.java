@@ -1,34 +1,119 @@
 package com.onieto.order.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.onieto.order.client.UserClient;
 import com.onieto.order.controller.response.UserResponseDto;
 import com.onieto.order.exception.ResourceNotFoundException;
 import feign.FeignException;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Valida usuarios contra ms-users. Los usuarios válidos se guardan en una caché acotada por email
+ * normalizado; los rechazos (usuario inexistente o inactivo) en otra con un TTL más corto, para que
+ * un alta o una reactivación se note pronto. Los errores de comunicación no se guardan.
+ * {@link #evict(String)} y {@link #evictAll()} permiten aplicar un cambio de estado de inmediato.
+ * Métricas: {@code cache.*{cache=order-users|order-users-rejected}}.
+ */
 @Service
-@RequiredArgsConstructor
 public class UserValidatorService {
 
     private final UserClient userClient;
+    private final Cache<String, UserResponseDto> users;
+    private final Cache<String, Rejection> rejected;
+
+    public UserValidatorService(UserClient userClient,
+                                @Value("${order.users.cache.maximum-size:10000}") long maximumSize,
+                                @Value("${order.users.cache.ttl:5m}") Duration ttl,
+                                @Value("${order.users.cache.rejected-ttl:30s}") Duration rejectedTtl,
+                                MeterRegistry meterRegistry) {
+        this.userClient = userClient;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.rejected = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(rejectedTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "order-users");
+        CaffeineCacheMetrics.monitor(meterRegistry, rejected, "order-users-rejected");
+    }
 
     public UserResponseDto getUserByEmail(String email) {
         if (!StringUtils.hasText(email)) {
             throw new IllegalArgumentException("El email del usuario es obligatorio.");
         }
 
+        String key = normalize(email);
+        Rejection rejection = rejected.getIfPresent(key);
+        if (rejection != null) {
+            throw rejection.toException();
+        }
+
+        // Las validaciones simultáneas del mismo email comparten una sola consulta; un evict durante
+        // la consulta espera a que termine y la descarta, así no se guarda un estado ya invalidado.
+        // Si la consulta falla no se guarda nada en esta caché (los rechazos van a la suya)
+        String trimmed = email.trim();
+        return users.get(key, k -> fetchUser(trimmed, k));
+    }
+
+    /**
+     * Descarta lo guardado para el email; la próxima validación vuelve a consultar ms-users.
+     * Primero se invalida la caché de usuarios, que espera a una consulta en curso del mismo email,
+     * para que un rechazo registrado por esa consulta también se descarte.
+     */
+    public void evict(String email) {
+        if (!StringUtils.hasText(email)) {
+            throw new IllegalArgumentException("El email del usuario es obligatorio.");
+        }
+        String key = normalize(email);
+        users.invalidate(key);
+        rejected.invalidate(key);
+    }
+
+    public void evictAll() {
+        users.invalidateAll();
+        rejected.invalidateAll();
+    }
+
+    private UserResponseDto fetchUser(String email, String key) {
+        UserResponseDto user;
         try {
-            UserResponseDto user = userClient.getUserByEmail(email);
-            if (user.getStatus() != null && user.getStatus() == 0) {
-                throw new IllegalArgumentException("El usuario con email " + email + " no está activo.");
-            }
-            return user;
+            user = userClient.getUserByEmail(email);
         } catch (FeignException.NotFound e) {
-            throw new ResourceNotFoundException("El usuario no existe: " + email);
+            throw reject(key, new Rejection(true, "El usuario no existe: " + email));
         } catch (FeignException e) {
             throw new IllegalArgumentException("Error al obtener el usuario: " + e.getMessage());
         }
+        if (user.getStatus() != null && user.getStatus() == 0) {
+            throw reject(key, new Rejection(false, "El usuario con email " + email + " no está activo."));
+        }
+        return user;
+    }
+
+    private RuntimeException reject(String key, Rejection rejection) {
+        rejected.put(key, rejection);
+        return rejection.toException();
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Rejection(boolean notFound, String message) {
+
+        RuntimeException toException() {
+            return notFound ? new ResourceNotFoundException(message) : new IllegalArgumentException(message);
+        }
     }
 }
@@ -0,0 +1,122 @@
+package com.onieto.order.repository;
+
+import com.onieto.order.dto.OrderFilter;
+import com.onieto.order.model.Coupon;
+import com.onieto.order.model.Order;
+import com.onieto.order.model.OrderItem;
+import com.onieto.order.model.OrderStatus;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.sql.init.mode=never")
+class OrderListingRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Coupon coupon = Coupon.builder().code("VERANO").discountAmount(100).active(true).build();
+        entityManager.persist(coupon);
+        // Seis órdenes, una por día hacia atrás: las pares de ana y pendientes, las impares de beto y pagadas
+        for (int i = 0; i < 6; i++) {
+            boolean even = i % 2 == 0;
+            Order order = Order.builder()
+                    .userEmail(even ? "ana@shop.com" : "beto@shop.com")
+                    .estado(even ? OrderStatus.PENDING : OrderStatus.PAID)
+                    .coupon(i == 0 ? coupon : null)
+                    .finalPrice(1000)
+                    .discountApplied(0)
+                    .orderDate(NOW.minusDays(i))
+                    .items(new ArrayList<>())
+                    .build();
+            for (int j = 0; j < 2; j++) {
+                order.getItems().add(OrderItem.builder()
+                        .productId("FR00" + j)
+                        .productName("Manzana")
+                        .unitPrice(500)
+                        .quantity(1)
+                        .subtotal(500)
+                        .order(order)
+                        .build());
+            }
+            ids.add(orderRepository.save(order).getId());
+        }
+        orderRepository.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findIds_ShouldFilterPageAndCountNewestFirst() {
+        OrderFilter filter = new OrderFilter(OrderStatus.PENDING, NOW.minusDays(3), null, "ana@shop.com");
+
+        Page<Long> first = orderRepository.findIds(filter, PageRequest.of(0, 1));
+        Page<Long> second = orderRepository.findIds(filter, PageRequest.of(1, 1));
+
+        // Pendientes de ana desde hace tres días: las órdenes 0 y 2, la más reciente primero (id mayor)
+        assertEquals(List.of(ids.get(2)), first.getContent());
+        assertEquals(List.of(ids.get(0)), second.getContent());
+        assertEquals(2, first.getTotalElements());
+        assertEquals(2, first.getTotalPages());
+    }
+
+    @Test
+    void findIds_WithDateRange_ShouldIncludeFromAndExcludeTo() {
+        OrderFilter filter = new OrderFilter(null, NOW.minusDays(2), NOW, null);
+
+        Page<Long> page = orderRepository.findIds(filter, PageRequest.of(0, 10));
+
+        assertEquals(List.of(ids.get(2), ids.get(1)), page.getContent());
+    }
+
+    @Test
+    void findIdsBefore_ShouldWalkByDescendingIdWithLimit() {
+        OrderFilter all = new OrderFilter(null, null, null, null);
+
+        List<Long> firstPage = orderRepository.findIdsBefore(all, null, 4);
+        List<Long> nextPage = orderRepository.findIdsBefore(all, firstPage.get(3), 4);
+        List<Long> beto = orderRepository.findIdsBefore(new OrderFilter(OrderStatus.PAID, null, null, "beto@shop.com"),
+                ids.get(5), 10);
+
+        List<Long> descending = ids.stream().sorted(Comparator.reverseOrder()).toList();
+        assertEquals(descending.subList(0, 4), firstPage);
+        assertEquals(descending.subList(4, 6), nextPage);
+        assertEquals(List.of(ids.get(3), ids.get(1)), beto);
+    }
+
+    @Test
+    void findAllWithItemsByIdIn_ShouldLoadCouponAndItemsWithoutDuplicates() {
+        List<Order> orders = orderRepository.findAllWithItemsByIdIn(List.of(ids.get(0), ids.get(1)));
+        entityManager.clear();
+
+        assertEquals(2, orders.size());
+        for (Order order : orders) {
+            assertTrue(Hibernate.isInitialized(order.getItems()));
+            assertEquals(2, order.getItems().size());
+        }
+        Order withCoupon = orders.stream().filter(o -> o.getId().equals(ids.get(0))).findFirst().orElseThrow();
+        assertTrue(Hibernate.isInitialized(withCoupon.getCoupon()));
+        assertEquals("VERANO", withCoupon.getCoupon().getCode());
+    }
+}
@@ -3,31 +3,42 @@ package com.onieto.order.service;
 import com.onieto.order.client.ProductClient;
 import com.onieto.order.controller.response.OrderResponse;
 import com.onieto.order.controller.response.UserResponseDto;
+import com.onieto.order.dto.CursorPage;
 import com.onieto.order.dto.OrderDto;
+import com.onieto.order.dto.OrderFilter;
 import com.onieto.order.dto.OrderItemRequestDto;
+import com.onieto.order.dto.ProductBatchResponseDto;
 import com.onieto.order.dto.ProductResponseDto;
+import com.onieto.order.exception.ResourceNotFoundException;
 import com.onieto.order.model.Coupon;
 import com.onieto.order.model.Order;
 import com.onieto.order.model.OrderItem;
 import com.onieto.order.model.OrderStatus;
 import com.onieto.order.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -52,9 +63,17 @@ class OrderServiceTest {
     @Mock
     private ProductClient productClient;
 
-    @InjectMocks
     private OrderService orderService;
 
+    @BeforeEach
+    void setUp() {
+        ProductLookupService productLookupService = new ProductLookupService(productClient, 500, 2, 100, Duration.ofSeconds(5));
+        ProductSnapshotCache productSnapshotCache = new ProductSnapshotCache(productClient, 100, Duration.ofSeconds(30),
+                Duration.ofMinutes(10), new SimpleMeterRegistry());
+        orderService = new OrderService(orderRepository, couponService, userValidatorService, productLookupService,
+                productSnapshotCache);
+    }
+
     @Test
     void createOrder_WithValidPayload_ShouldPersistAndDisableCoupon() {
         // Arrange
@@ -71,7 +90,7 @@ class OrderServiceTest {
         when(userValidatorService.getUserByEmail(dto.getUserEmail())).thenReturn(user);
         when(couponService.getCouponByCode("SAVE5")).thenReturn(coupon);
         // producto con precio 10 (Integer)
-        when(productClient.getProductById("SKU-1")).thenReturn(buildProduct("SKU-1", 10));
+        when(productClient.getProductsByIds(Set.of("SKU-1"))).thenReturn(buildBatch(buildProduct("SKU-1", 10)));
         when(orderRepository.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
 
         // Act
@@ -134,7 +153,7 @@ class OrderServiceTest {
 
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(existingOrder));
         when(userValidatorService.getUserByEmail(dto.getUserEmail())).thenReturn(user);
-        when(productClient.getProductById("FR001")).thenReturn(buildProduct("FR001", 1200));
+        when(productClient.getProductsByIds(Set.of("FR001"))).thenReturn(buildBatch(buildProduct("FR001", 1200)));
         when(orderRepository.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
 
         ResponseEntity<OrderResponse> response = orderService.updateOrder(orderId, dto);
@@ -150,6 +169,43 @@ class OrderServiceTest {
     }
 
 
+    @Test
+    void createOrder_ShouldStoreImageReferenceInsteadOfBytes() {
+        OrderDto dto = buildOrderDto(null);
+        UserResponseDto user = new UserResponseDto(1L, "Ana", "ana@shop.com", null, 1);
+        ProductResponseDto product = buildProduct("SKU-1", 10);
+        product.setImagenHash("abc123");
+
+        when(userValidatorService.getUserByEmail(dto.getUserEmail())).thenReturn(user);
+        when(productClient.getProductsByIds(Set.of("SKU-1"))).thenReturn(buildBatch(product));
+        when(orderRepository.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        OrderItem item = orderService.createOrder(dto).getBody().getItems().get(0);
+
+        assertNull(item.getProductImage());
+        assertEquals("abc123", item.getProductImageHash());
+        assertEquals("/api/products/SKU-1/image?v=abc123", item.getProductImageUrl());
+    }
+
+    @Test
+    void createOrder_WhenProductMissingFromBatch_ShouldFailWithoutSaving() {
+        OrderDto dto = buildOrderDto(null);
+        dto.setItems(List.of(new OrderItemRequestDto("SKU-1", 1), new OrderItemRequestDto("SKU-2", 1)));
+        UserResponseDto user = new UserResponseDto(1L, "Ana", "ana@shop.com", null, 1);
+        ProductBatchResponseDto batch = buildBatch(buildProduct("SKU-1", 10));
+        batch.setMissing(List.of("SKU-2"));
+
+        when(userValidatorService.getUserByEmail(dto.getUserEmail())).thenReturn(user);
+        when(productClient.getProductsByIds(Set.of("SKU-1", "SKU-2"))).thenReturn(batch);
+
+        ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class,
+                () -> orderService.createOrder(dto));
+
+        assertEquals("Producto no encontrado: SKU-2", ex.getMessage());
+        verify(productClient, never()).getProductById(anyString());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
     @Test
     void updateOrderStatusById_ShouldPersistStatusChange() {
         Order order = Order.builder()
@@ -168,7 +224,7 @@ class OrderServiceTest {
     }
 
     @Test
-    void getAllOrders_ShouldReturnMappedResponses() {
+    void getOrders_ShouldReturnMappedResponses() {
         Coupon coupon = Coupon.builder()
                 .id(1L)
                 .code("ACTIVE")
@@ -196,16 +252,45 @@ class OrderServiceTest {
                 .build();
         item.setOrder(order);
 
-        when(orderRepository.findAll()).thenReturn(List.of(order));
+        OrderFilter filter = new OrderFilter(OrderStatus.PENDING, null, null, " buyer@shop.com ");
+        OrderFilter normalized = new OrderFilter(OrderStatus.PENDING, null, null, "buyer@shop.com");
+        when(orderRepository.findIds(normalized, PageRequest.of(0, 20)))
+                .thenReturn(new PageImpl<>(List.of(5L), PageRequest.of(0, 20), 1));
+        when(orderRepository.findAllWithItemsByIdIn(List.of(5L))).thenReturn(List.of(order));
 
-        ResponseEntity<List<OrderResponse>> response = orderService.getAllOrders();
+        ResponseEntity<List<OrderResponse>> response = orderService.getOrders(0, 20, filter);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(1, response.getBody().size());
         assertEquals("buyer@shop.com", response.getBody().get(0).getUserEmail());
         assertEquals("ACTIVE", response.getBody().get(0).getCoupon().getCode());
-        verify(orderRepository).findAll();
+        assertEquals("1", response.getHeaders().getFirst("X-Total-Count"));
+        verify(orderRepository, never()).findAll();
+    }
+
+    @Test
+    void getOrdersBefore_ShouldKeepIdOrderAndReturnNextCursor() {
+        OrderFilter filter = new OrderFilter(null, null, null, null);
+        when(orderRepository.findIdsBefore(filter, 10L, 3)).thenReturn(List.of(9L, 7L, 4L));
+        when(orderRepository.findAllWithItemsByIdIn(List.of(9L, 7L))).thenReturn(List.of(
+                Order.builder().id(7L).items(List.of()).build(),
+                Order.builder().id(9L).items(List.of()).build()));
+
+        CursorPage<OrderResponse> page = orderService.getOrdersBefore(OrderService.encodeCursor(10L), 2, filter).getBody();
+
+        assertNotNull(page);
+        assertEquals(List.of(9L, 7L), page.items().stream().map(OrderResponse::getId).toList());
+        assertEquals(7L, OrderService.decodeCursor(page.nextCursor()));
+    }
+
+    @Test
+    void getOrders_WithInvalidParameters_ShouldFail() {
+        LocalDateTime now = LocalDateTime.now();
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrders(0, OrderService.MAX_PAGE_SIZE + 1, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.getOrders(0, 20, new OrderFilter(null, now, now.minusDays(1), null)));
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrdersBefore("%%%", 20, null));
     }
 
     // Helpers
@@ -218,6 +303,14 @@ class OrderServiceTest {
         return dto;
     }
 
+    private ProductBatchResponseDto buildBatch(ProductResponseDto... products) {
+        ProductBatchResponseDto batch = new ProductBatchResponseDto();
+        for (ProductResponseDto product : products) {
+            batch.getProducts().put(product.getId(), product);
+        }
+        return batch;
+    }
+
     private ProductResponseDto buildProduct(String id, int price) {
         ProductResponseDto product = new ProductResponseDto();
         product.setId(id);
@@ -0,0 +1,156 @@
+package com.onieto.order.service;
+
+import com.onieto.order.client.ProductClient;
+import com.onieto.order.dto.ProductBatchResponseDto;
+import com.onieto.order.dto.ProductResponseDto;
+import com.onieto.order.exception.ResourceNotFoundException;
+import com.onieto.order.exception.ServiceUnavailableException;
+import feign.Request;
+import feign.RetryableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductLookupServiceTest {
+
+    @Mock
+    private ProductClient productClient;
+
+    private ProductLookupService lookupService;
+
+    @AfterEach
+    void tearDown() {
+        if (lookupService != null) {
+            lookupService.shutdown();
+        }
+    }
+
+    @Test
+    void getProducts_ShouldCollapseDuplicatesAndSplitInBatches() {
+        lookupService = new ProductLookupService(productClient, 2, 2, 10, Duration.ofSeconds(5));
+        when(productClient.getProductsByIds(Set.of("A", "B"))).thenReturn(batch("A", "B"));
+        when(productClient.getProductsByIds(Set.of("C"))).thenReturn(batch("C"));
+
+        Map<String, ProductResponseDto> products = lookupService.getProducts(List.of("A", "B", "A", "C", "B"));
+
+        assertEquals(Set.of("A", "B", "C"), products.keySet());
+        verify(productClient, times(1)).getProductsByIds(Set.of("A", "B"));
+        verify(productClient, times(1)).getProductsByIds(Set.of("C"));
+    }
+
+    @Test
+    void getProducts_ShouldRunBatchesConcurrently() throws InterruptedException {
+        lookupService = new ProductLookupService(productClient, 1, 2, 10, Duration.ofSeconds(5));
+        // Cada lote espera al otro: solo terminan si se consultan a la vez
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(productClient.getProductsByIds(Set.of("A"))).thenAnswer(inv -> awaitAndReturn(bothStarted, "A"));
+        when(productClient.getProductsByIds(Set.of("B"))).thenAnswer(inv -> awaitAndReturn(bothStarted, "B"));
+
+        Map<String, ProductResponseDto> products = lookupService.getProducts(List.of("A", "B"));
+
+        assertEquals(Set.of("A", "B"), products.keySet());
+    }
+
+    @Test
+    void getProducts_ShouldReportFirstMissingIdInRequestOrder() {
+        lookupService = new ProductLookupService(productClient, 1, 2, 10, Duration.ofSeconds(5));
+        when(productClient.getProductsByIds(Set.of("A"))).thenReturn(batch());
+        when(productClient.getProductsByIds(Set.of("B"))).thenReturn(batch());
+
+        ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class,
+                () -> lookupService.getProducts(List.of("B", "A")));
+
+        assertEquals("Producto no encontrado: B", ex.getMessage());
+    }
+
+    @Test
+    void getProducts_WhenCatalogIsTooSlow_ShouldFailAfterDeadline() {
+        lookupService = new ProductLookupService(productClient, 1, 2, 10, Duration.ofMillis(50));
+        when(productClient.getProductsByIds(any())).thenAnswer(inv -> {
+            Thread.sleep(2000);
+            return batch();
+        });
+
+        assertThrows(ServiceUnavailableException.class, () -> lookupService.getProducts(List.of("A", "B")));
+    }
+
+    @Test
+    void getProducts_WithSingleSlowBatch_ShouldFailAfterDeadline() {
+        lookupService = new ProductLookupService(productClient, 500, 2, 10, Duration.ofMillis(50));
+        when(productClient.getProductsByIds(Set.of("A", "B"))).thenAnswer(inv -> {
+            Thread.sleep(2000);
+            return batch("A", "B");
+        });
+
+        long start = System.nanoTime();
+        assertThrows(ServiceUnavailableException.class, () -> lookupService.getProducts(List.of("A", "B")));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1000);
+    }
+
+    @Test
+    void getProducts_WhenReadTimesOut_ShouldFailAsUnavailable() {
+        lookupService = new ProductLookupService(productClient, 500, 2, 10, Duration.ofSeconds(5));
+        Request request = Request.create(Request.HttpMethod.POST, "/api/products/batch", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+        when(productClient.getProductsByIds(Set.of("A"))).thenThrow(
+                new RetryableException(-1, "Read timed out", Request.HttpMethod.POST, (Long) null, request));
+
+        assertThrows(ServiceUnavailableException.class, () -> lookupService.getProducts(List.of("A")));
+    }
+
+    @Test
+    void getProducts_WhenQueueIsFull_ShouldFailFastAsUnavailable() {
+        // Un hilo y un lugar en la cola: el primer lote ocupa el hilo, el segundo la cola y el tercero se rechaza
+        lookupService = new ProductLookupService(productClient, 1, 1, 1, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        // Al rechazar el tercer lote se cancelan los anteriores: el primero puede no llegar a ejecutarse
+        lenient().when(productClient.getProductsByIds(any())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return batch();
+        });
+
+        try {
+            assertThrows(ServiceUnavailableException.class, () -> lookupService.getProducts(List.of("A", "B", "C")));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private ProductBatchResponseDto awaitAndReturn(CountDownLatch latch, String id) throws InterruptedException {
+        latch.countDown();
+        latch.await();
+        return batch(id);
+    }
+
+    private ProductBatchResponseDto batch(String... ids) {
+        ProductBatchResponseDto batch = new ProductBatchResponseDto();
+        for (String id : ids) {
+            ProductResponseDto product = new ProductResponseDto();
+            product.setId(id);
+            product.setPrecio(10);
+            batch.getProducts().put(id, product);
+        }
+        return batch;
+    }
+}
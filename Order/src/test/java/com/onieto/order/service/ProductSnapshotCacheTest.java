@@ -0,0 +1,124 @@
+package com.onieto.order.service;
+
+import com.onieto.order.client.ProductClient;
+import com.onieto.order.dto.ProductResponseDto;
+import com.onieto.order.exception.ResourceNotFoundException;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSnapshotCacheTest {
+
+    @Mock
+    private ProductClient productClient;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private ProductSnapshotCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Ticker manual y refresco en el mismo hilo para que la prueba sea determinista
+        cache = new ProductSnapshotCache(productClient, 100, Duration.ofSeconds(30), Duration.ofMinutes(10),
+                meterRegistry, nanos::get, Runnable::run);
+    }
+
+    @Test
+    void get_ShouldCacheWithoutImageAndRecordHits() {
+        when(productClient.getProductById("FR001")).thenReturn(product("FR001", 1200));
+
+        ProductResponseDto first = cache.get("FR001");
+        ProductResponseDto second = cache.get("FR001");
+
+        assertEquals(1200, second.getPrecio());
+        assertNull(first.getImagen());
+        verify(productClient, times(1)).getProductById("FR001");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "order-products").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1L, meterRegistry.get("order.products.fetch").tag("type", "load").timer().count());
+    }
+
+    @Test
+    void get_AfterTtl_ShouldRefreshPrice() {
+        when(productClient.getProductById("FR001"))
+                .thenReturn(product("FR001", 1200))
+                .thenReturn(product("FR001", 1300));
+
+        cache.get("FR001");
+        advance(Duration.ofSeconds(31));
+        cache.get("FR001");
+
+        assertEquals(1300, cache.get("FR001").getPrecio());
+        assertEquals(1L, meterRegistry.get("order.products.fetch").tag("type", "refresh").timer().count());
+    }
+
+    @Test
+    void get_WhenCatalogFailsWithinGrace_ShouldKeepCachedPrice() {
+        when(productClient.getProductById("FR001"))
+                .thenReturn(product("FR001", 1200))
+                .thenThrow(unavailable());
+
+        cache.get("FR001");
+        advance(Duration.ofMinutes(5));
+
+        assertEquals(1200, cache.get("FR001").getPrecio());
+        assertEquals(1200, cache.get("FR001").getPrecio());
+    }
+
+    @Test
+    void get_WhenCatalogFailsAfterGrace_ShouldFail() {
+        when(productClient.getProductById("FR001"))
+                .thenReturn(product("FR001", 1200))
+                .thenThrow(unavailable());
+
+        cache.get("FR001");
+        advance(Duration.ofMinutes(11));
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get("FR001"));
+    }
+
+    @Test
+    void get_WhenProductDoesNotExist_ShouldThrowNotFound() {
+        when(productClient.getProductById("XX999")).thenReturn(null);
+
+        assertThrows(ResourceNotFoundException.class, () -> cache.get("XX999"));
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private FeignException unavailable() {
+        Request request = Request.create(Request.HttpMethod.GET, "/api/products/FR001", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+        return new FeignException.ServiceUnavailable("Service Unavailable", request, null, Map.of());
+    }
+
+    private ProductResponseDto product(String id, int price) {
+        ProductResponseDto product = new ProductResponseDto();
+        product.setId(id);
+        product.setNombre("Manzana");
+        product.setPrecio(price);
+        product.setImagen(new byte[]{1, 2, 3});
+        return product;
+    }
+}
@@ -0,0 +1,165 @@
+package com.onieto.order.service;
+
+import com.onieto.order.client.UserClient;
+import com.onieto.order.controller.response.UserResponseDto;
+import com.onieto.order.exception.ResourceNotFoundException;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserValidatorServiceTest {
+
+    @Mock
+    private UserClient userClient;
+
+    private UserValidatorService userValidatorService;
+
+    @BeforeEach
+    void setUp() {
+        userValidatorService = new UserValidatorService(userClient, 100, Duration.ofMinutes(5), Duration.ofSeconds(30),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void getUserByEmail_ShouldCacheByNormalizedEmail() {
+        when(userClient.getUserByEmail("Ana@Shop.com")).thenReturn(user("ana@shop.com", 1));
+
+        userValidatorService.getUserByEmail("Ana@Shop.com");
+        UserResponseDto user = userValidatorService.getUserByEmail(" ana@shop.com ");
+
+        assertEquals("ana@shop.com", user.getEmail());
+        verify(userClient, times(1)).getUserByEmail("Ana@Shop.com");
+    }
+
+    @Test
+    void getUserByEmail_WhenInactive_ShouldCacheRejection() {
+        when(userClient.getUserByEmail("ana@shop.com")).thenReturn(user("ana@shop.com", 0));
+
+        assertThrows(IllegalArgumentException.class, () -> userValidatorService.getUserByEmail("ana@shop.com"));
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> userValidatorService.getUserByEmail("ana@shop.com"));
+
+        assertEquals("El usuario con email ana@shop.com no está activo.", ex.getMessage());
+        verify(userClient, times(1)).getUserByEmail("ana@shop.com");
+    }
+
+    @Test
+    void getUserByEmail_WhenUsersServiceFails_ShouldNotCacheError() {
+        when(userClient.getUserByEmail("ana@shop.com"))
+                .thenThrow(unavailable())
+                .thenReturn(user("ana@shop.com", 1));
+
+        assertThrows(IllegalArgumentException.class, () -> userValidatorService.getUserByEmail("ana@shop.com"));
+
+        assertEquals("ana@shop.com", userValidatorService.getUserByEmail("ana@shop.com").getEmail());
+    }
+
+    @Test
+    void evict_ShouldApplyReactivationImmediately() {
+        when(userClient.getUserByEmail("ana@shop.com"))
+                .thenThrow(notFound())
+                .thenReturn(user("ana@shop.com", 1));
+
+        assertThrows(ResourceNotFoundException.class, () -> userValidatorService.getUserByEmail("ana@shop.com"));
+        userValidatorService.evict("ANA@shop.com");
+
+        assertEquals("ana@shop.com", userValidatorService.getUserByEmail("ana@shop.com").getEmail());
+        verify(userClient, times(2)).getUserByEmail("ana@shop.com");
+    }
+
+    @Test
+    void getUserByEmail_WithConcurrentCalls_ShouldShareOneRequest() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userClient.getUserByEmail("ana@shop.com")).thenAnswer(inv -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return user("ana@shop.com", 1);
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<UserResponseDto> first = pool.submit(() -> userValidatorService.getUserByEmail("ana@shop.com"));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<UserResponseDto> second = pool.submit(() -> userValidatorService.getUserByEmail("ANA@shop.com"));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals("ana@shop.com", first.get(5, TimeUnit.SECONDS).getEmail());
+            assertEquals("ana@shop.com", second.get(5, TimeUnit.SECONDS).getEmail());
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(userClient, times(1)).getUserByEmail(anyString());
+    }
+
+    @Test
+    void evict_DuringLoad_ShouldDiscardTheLoadedUser() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userClient.getUserByEmail("ana@shop.com"))
+                .thenAnswer(inv -> {
+                    loading.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return user("ana@shop.com", 1);
+                })
+                .thenReturn(user("ana@shop.com", 0));
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<UserResponseDto> load = pool.submit(() -> userValidatorService.getUserByEmail("ana@shop.com"));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<?> evict = pool.submit(() -> userValidatorService.evict("ana@shop.com"));
+            Thread.sleep(100);
+            release.countDown();
+            load.get(5, TimeUnit.SECONDS);
+            evict.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // El usuario se desactivó mientras se consultaba: la siguiente validación ya no usa la copia vieja
+        assertThrows(IllegalArgumentException.class, () -> userValidatorService.getUserByEmail("ana@shop.com"));
+        verify(userClient, times(2)).getUserByEmail("ana@shop.com");
+    }
+
+    private UserResponseDto user(String email, int status) {
+        return new UserResponseDto(1L, "Ana", email, null, status);
+    }
+
+    private FeignException notFound() {
+        return new FeignException.NotFound("Not Found", request(), null, Map.of());
+    }
+
+    private FeignException unavailable() {
+        return new FeignException.ServiceUnavailable("Service Unavailable", request(), null, Map.of());
+    }
+
+    private Request request() {
+        return Request.create(Request.HttpMethod.GET, "/api/users/by-email", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+    }
+}